@@ -3,20 +3,20 @@ package com.example.pedido_service.config;
 import com.example.pedido_service.enums.UserRole;
 import com.example.pedido_service.model.User;
 import com.example.pedido_service.repository.UserRepository;
+import com.example.pedido_service.service.PasswordHasher;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Set;
 
 @Configuration
 public class AdminUserConfig implements CommandLineRunner {
     private final UserRepository userRepository;
-    private BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
-    public AdminUserConfig(UserRepository userRepository) {
+    public AdminUserConfig(UserRepository userRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHasher = passwordHasher;
     }
 
     @Override
@@ -30,7 +30,7 @@ public class AdminUserConfig implements CommandLineRunner {
                 () -> {
                     var user = new User();
                     user.setUsername("admin");
-                    user.setPassword(passwordEncoder.encode("admin"));
+                    user.setPassword(passwordHasher.encode("admin"));
                     user.setRoles(Set.of(UserRole.ADMIN));
                     userRepository.save(user);
                 }
@@ -0,0 +1,106 @@
+package com.example.pedido_service.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits at most {@code permits} connection holders at a time, in arrival order.
+ * <p>
+ * With one virtual thread per request there is no thread pool left to bound how many requests reach the database
+ * at once. Waiting here parks the virtual thread on a fair semaphore instead of piling every request onto the pool's
+ * handoff queue, and a waiter that cannot get a permit within {@code acquireTimeout} fails the same way a pool
+ * timeout would. The permit is held until the connection is closed.
+ */
+public class GatedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final Timer acquireWait;
+
+    public GatedDataSource(DataSource targetDataSource, int permits, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+        this.acquireWait = Timer.builder("jdbc.connections.gate.wait")
+                .description("Time spent waiting for a database connection permit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        Gauge.builder("jdbc.connections.gate.waiting", this.permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database connection permit")
+                .register(meterRegistry);
+        Gauge.builder("jdbc.connections.gate.available", this.permits, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No database connection permit available after " + acquireTimeout.toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection permit", e);
+        } finally {
+            acquireWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Hands the permit back on the first close; pools and Hibernate can still unwrap to the driver's connection
+    private Connection guard(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(GatedDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
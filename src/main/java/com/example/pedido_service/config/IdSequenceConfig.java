@@ -0,0 +1,64 @@
+package com.example.pedido_service.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Moves the id sequences past ids that tables created with identity columns already hold,
+ * so the pooled sequence generators never hand out an id that is taken.
+ * <p>
+ * Runs once every singleton exists, before the web server starts taking requests.
+ */
+@Configuration
+public class IdSequenceConfig implements SmartInitializingSingleton {
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<IdSequence> SEQUENCES = List.of(
+            new IdSequence("orders_seq", "select max(id) from orders", "alter sequence orders_seq restart with ?"),
+            new IdSequence("ordered_item_seq", "select max(id) from ordered_item", "alter sequence ordered_item_seq restart with ?"),
+            new IdSequence("product_seq", "select max(id) from product", "alter sequence product_seq restart with ?"),
+            new IdSequence("stock_movements_seq", "select max(id) from stock_movements", "alter sequence stock_movements_seq restart with ?")
+    );
+
+    // PostgreSQL takes no bind parameters in DDL, but setval with is_called = false has the same effect as a restart
+    private static final String POSTGRES_RESTART = "select setval(cast(? as regclass), ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceConfig(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (IdSequence sequence : SEQUENCES) {
+            Long maxId = jdbcTemplate.queryForObject(sequence.maxIdQuery(), Long.class);
+            if (maxId == null) {
+                continue;
+            }
+
+            // A pooled generator hands out the block ending at the value it reads, so keep a full block above maxId
+            Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence.name()), Long.class);
+            if (next != null && next - ALLOCATION_SIZE < maxId) {
+                long restartWith = maxId + ALLOCATION_SIZE + 1;
+                if (dialect instanceof PostgreSQLDialect) {
+                    jdbcTemplate.queryForObject(POSTGRES_RESTART, Long.class, sequence.name(), restartWith);
+                } else {
+                    jdbcTemplate.update(sequence.restartStatement(), restartWith);
+                }
+            }
+        }
+    }
+
+    private record IdSequence(String name, String maxIdQuery, String restartStatement) {
+    }
+}
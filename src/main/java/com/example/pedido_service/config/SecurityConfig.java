@@ -13,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -41,11 +40,16 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorizeRequests ->authorizeRequests
                         .requestMatchers(
                                 "/auth/login",
+                                "/auth/refresh",
+                                "/auth/logout",
                                 "/user",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
-                                "/swagger-ui.html"
+                                "/swagger-ui.html",
+                                "/actuator/health"
                         ).permitAll()
+                        // Metrics expose handler names, SQL timings and cache sizes: scrapers use an ADMIN token
+                        .requestMatchers("/actuator/**").hasAuthority("SCOPE_ADMIN")
                         .anyRequest().authenticated()
                 )
                 .csrf(AbstractHttpConfigurer::disable)
@@ -64,12 +68,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(publicKey).build();
-    }
-
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public JwtDecoder jwtDecoder(@Value("${jwt.cache.enabled:true}") boolean cacheEnabled,
+                                 @Value("${jwt.cache.maximum-size:100000}") long cacheMaximumSize) {
+        JwtDecoder decoder = NimbusJwtDecoder.withPublicKey(publicKey).build();
+        return cacheEnabled ? new CachingJwtDecoder(decoder, cacheMaximumSize) : decoder;
     }
 }
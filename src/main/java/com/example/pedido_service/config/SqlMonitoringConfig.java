@@ -0,0 +1,29 @@
+package com.example.pedido_service.config;
+
+import com.example.pedido_service.monitoring.SqlStatistics;
+import com.example.pedido_service.monitoring.SqlTimingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTimingDataSourcePostProcessor(ObjectProvider<SqlStatistics> sqlStatistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlTimingDataSource)) {
+                    return new SqlTimingDataSource(dataSource, sqlStatistics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pedido_service.config;
+
+import com.example.pedido_service.monitoring.CountingStatementInspector;
+import com.example.pedido_service.monitoring.JdbcTimeSessionListener;
+import com.example.pedido_service.monitoring.StatementBudgetInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class StatementBudgetConfig implements WebMvcConfigurer {
+
+    private final StatementBudgetInterceptor statementBudgetInterceptor;
+
+    @Autowired
+    public StatementBudgetConfig(StatementBudgetInterceptor statementBudgetInterceptor) {
+        this.statementBudgetInterceptor = statementBudgetInterceptor;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimeSessionListener.class.getName());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementBudgetInterceptor);
+    }
+}
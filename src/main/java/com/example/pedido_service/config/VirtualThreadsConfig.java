@@ -0,0 +1,49 @@
+package com.example.pedido_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Boot itself moves Tomcat, the application task
+ * executor and the task scheduler onto virtual threads; this guards the connection pool behind a
+ * {@link GatedDataSource} with one permit per pooled connection.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static GatedDataSourcePostProcessor gatedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                 @Value("${datasource.gate.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new GatedDataSourcePostProcessor(meterRegistry, acquireTimeout);
+    }
+
+    // Ordered (and declared with this type, so the container sees it before instantiating it): the pool is wrapped
+    // before the SQL timing proxy hides its type
+    record GatedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Duration acquireTimeout)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource pool) {
+                return new GatedDataSource(pool, pool.getMaximumPoolSize(), acquireTimeout, meterRegistry.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
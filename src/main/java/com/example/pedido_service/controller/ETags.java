@@ -0,0 +1,23 @@
+package com.example.pedido_service.controller;
+
+/**
+ * Entity tags derived from the {@code version} columns, or from a revision string built on them.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(String revision) {
+        return "\"" + revision + "\"";
+    }
+
+    // Each content coding is a different representation, so it needs its own strong tag
+    static String withCoding(String etag, String coding) {
+        return etag.substring(0, etag.length() - 1) + "-" + coding + "\"";
+    }
+}
@@ -1,72 +1,164 @@
 package com.example.pedido_service.controller;
 
+import com.example.pedido_service.dto.BatchOrderResultDTO;
 import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CursorPageDTO;
 import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.dto.OrderIntakeStatusDTO;
 import com.example.pedido_service.dto.UpdateOrderDTO;
 import com.example.pedido_service.enums.OrderStatus;
+import com.example.pedido_service.monitoring.StatementBudget;
+import com.example.pedido_service.service.OrderIntake;
 import com.example.pedido_service.service.OrderService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Tag(name = "Orders", description = "Orders endpoints")
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
+    private static final Object EXPORT_TIMEOUT_KEY = new Object();
+
     private final OrderService orderService;
+    private final OrderIntake orderIntake;
+    private final ObjectMapper objectMapper;
+    private final Duration exportTimeout;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderIntake orderIntake, ObjectMapper objectMapper,
+                           @Value("${orders.export.timeout:30m}") Duration exportTimeout) {
         this.orderService = orderService;
+        this.orderIntake = orderIntake;
+        this.objectMapper = objectMapper;
+        this.exportTimeout = exportTimeout;
     }
 
     @Operation(
             summary = "Cria um novo Pedido",
-            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem criar um pedido"
+            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem criar um pedido. " +
+                    "Com a entrada assíncrona habilitada o pedido é enfileirado e a resposta é 202 com um identificador " +
+                    "para consultar o resultado em /orders/intake/{handle}; com a fila cheia a resposta é 429"
     )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", content = @Content(schema = @Schema(implementation = OrderDTO.class))),
+            @ApiResponse(responseCode = "202", content = @Content(schema = @Schema(implementation = OrderIntakeStatusDTO.class))),
+            @ApiResponse(responseCode = "429", content = @Content)
+    })
     @PostMapping
     @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR', 'SCOPE_CLIENTE')")
-    public ResponseEntity<OrderDTO> createOrder(@RequestBody @Valid CreateOrderDTO orderDTO) throws RuntimeException {
+    public ResponseEntity<?> createOrder(@RequestBody @Valid CreateOrderDTO orderDTO) throws RuntimeException {
+        if (orderIntake.isEnabled()) {
+            OrderIntakeStatusDTO queued = orderIntake.submit(orderDTO);
+            URI status = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/intake/{handle}")
+                    .buildAndExpand(queued.getHandle())
+                    .toUri();
+
+            return ResponseEntity.accepted().location(status).body(queued);
+        }
+
         OrderDTO createdOrder = orderService.createOrder(orderDTO);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
+    @Operation(
+            summary = "Consulta um Pedido enfileirado",
+            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem consultar o resultado de um pedido aceito com 202: " +
+                    "QUEUED enquanto aguarda, CREATED com o pedido criado ou REJECTED com o motivo"
+    )
+    @GetMapping("/intake/{handle}")
+    @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR', 'SCOPE_CLIENTE')")
+    public ResponseEntity<OrderIntakeStatusDTO> getIntakeStatus(@PathVariable("handle") String handle) throws RuntimeException {
+        OrderIntakeStatusDTO status = orderIntake.findStatus(handle);
+
+        return ResponseEntity.ok(status);
+    }
+
+    @Operation(
+            summary = "Cria Pedidos em lote",
+            description = "Apenas ADMIN ou OPERADOR podem importar pedidos em lote. " +
+                    "Cada pedido é aceito ou rejeitado individualmente e o resultado é retornado na mesma ordem do envio"
+    )
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR')")
+    @StatementBudget(10_000) // One guarded stock decrement per order line
+    public ResponseEntity<List<BatchOrderResultDTO>> createOrders(@RequestBody List<@Valid CreateOrderDTO> orderDTOs) throws RuntimeException {
+        List<BatchOrderResultDTO> results = orderService.createOrders(orderDTOs);
+
+        return ResponseEntity.ok(results);
+    }
+
     @Operation(
             summary = "Busca todos os Pedidos registrados",
-            description = "Apenas usuários ADMIN ou OPERADOR podem acessar todos os pedidos registrados"
+            description = "Apenas usuários ADMIN ou OPERADOR podem acessar todos os pedidos registrados. " +
+                    "A resposta é paginada: use o nextCursor retornado para buscar a próxima página"
     )
     @GetMapping
     @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR')")
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.findAllOrders();
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getAllOrders(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        CursorPageDTO<OrderDTO> orders = orderService.findAllOrders(cursor, size);
 
         return ResponseEntity.ok(orders);
     }
 
     @Operation(
             summary = "Busca um Pedido",
-            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem acessar detalhes de um pedido específico"
+            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem acessar detalhes de um pedido específico. " +
+                    "Envie o ETag recebido em If-None-Match para receber 304 quando o pedido não mudou"
     )
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR', 'SCOPE_CLIENTE')")
-    public ResponseEntity<OrderDTO> getOrderById(@PathVariable("id") Long id) throws RuntimeException {
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable("id") Long id, WebRequest request) throws RuntimeException {
+        // Only the version and product descriptions are read to answer a revalidation; the order is loaded when it changed
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(ETags.of(orderService.findOrderRevision(id)))) {
+            return null;
+        }
+
         OrderDTO order = orderService.findOrderById(id);
 
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok().eTag(ETags.of(orderService.revisionOf(order))).body(order);
     }
 
     @Operation(
@@ -81,6 +173,19 @@ public class OrderController {
         return ResponseEntity.ok(updated);
     }
 
+    @Operation(
+            summary = "Cancela Pedidos em lote",
+            description = "Apenas ADMIN pode cancelar pedidos em lote. O cancelamento é atômico: " +
+                    "se algum pedido não existir ou não estiver PENDING, nenhum pedido é cancelado"
+    )
+    @PostMapping("/cancel")
+    @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN')")
+    public ResponseEntity<List<OrderDTO>> cancelOrders(@RequestBody List<Long> ids) throws RuntimeException {
+        List<OrderDTO> cancelled = orderService.cancelOrders(ids);
+
+        return ResponseEntity.ok(cancelled);
+    }
+
     @Operation(
             summary = "Atualiza um Pedido",
             description = "Apenas ADMIN ou OPERADOR podem atualizar um pedido"
@@ -95,20 +200,75 @@ public class OrderController {
 
     @Operation(
             summary = "Busca Pedidos através de filtros",
-            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem buscar pedidos filtrados por status, data, e valor"
+            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem buscar pedidos filtrados por status, data, e valor. " +
+                    "A resposta é paginada: use o nextCursor retornado para buscar a próxima página"
     )
     @GetMapping("/search")
     @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR', 'SCOPE_CLIENTE')")
-    public List<OrderDTO> searchOrders(
+    public CursorPageDTO<OrderDTO> searchOrders(
             @RequestParam(name = "status", required = false) OrderStatus status,
             @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(name = "minTotal", required = false) BigDecimal minTotal,
-            @RequestParam(name = "maxTotal", required = false) BigDecimal maxTotal) {
+            @RequestParam(name = "maxTotal", required = false) BigDecimal maxTotal,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
 
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(LocalTime.MAX) : null;
 
-        return orderService.findFilteredOrders(status, startDateTime, endDateTime, minTotal, maxTotal);
+        return orderService.findFilteredOrders(status, startDateTime, endDateTime, minTotal, maxTotal, cursor, size);
+    }
+
+    @Operation(
+            summary = "Exporta Pedidos em NDJSON",
+            description = "Apenas ADMIN ou OPERADOR podem exportar pedidos. Aceita os mesmos filtros da busca " +
+                    "e retorna um pedido JSON por linha, transmitido conforme é lido do banco"
+    )
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(name = "status", required = false) OrderStatus status,
+            @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "minTotal", required = false) BigDecimal minTotal,
+            @RequestParam(name = "maxTotal", required = false) BigDecimal maxTotal,
+            WebRequest request) {
+
+        // Only exports get the long timeout: a stalled request anywhere else should still fail fast
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_TIMEOUT_KEY, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                ((AsyncWebRequest) asyncRequest).setTimeout(exportTimeout.toMillis());
+            }
+        });
+
+        LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(LocalTime.MAX) : null;
+
+        // The response buffer decides when bytes go out, not every order
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+
+        StreamingResponseBody body = outputStream -> {
+            AtomicBoolean written = new AtomicBoolean();
+            try (SequenceWriter lines = writer.writeValues(outputStream)) {
+                orderService.exportOrders(status, startDateTime, endDateTime, minTotal, maxTotal, order -> {
+                    try {
+                        lines.write(order);
+                        written.set(true);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (written.get()) {
+                outputStream.write('\n');
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 }
@@ -3,13 +3,20 @@ package com.example.pedido_service.controller;
 import com.example.pedido_service.dto.CreateProductDTO;
 import com.example.pedido_service.dto.ProductDTO;
 import com.example.pedido_service.dto.UpdateProductDTO;
+import com.example.pedido_service.service.CatalogSnapshot;
 import com.example.pedido_service.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -44,26 +51,41 @@ public class ProductController {
 
     @Operation(
             summary = "Busca todos os Produtos registrados",
-            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem acessar todos os produtos registrados"
+            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem acessar todos os produtos registrados. " +
+                    "Envie o ETag recebido em If-None-Match para receber 304 quando o catálogo não mudou. " +
+                    "A resposta vem compactada com gzip quando o cliente envia Accept-Encoding: gzip"
     )
+    @ApiResponse(responseCode = "200", content = @Content(
+            mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class))))
     @GetMapping
     @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR', 'SCOPE_CLIENTE')")
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> products = productService.findAllProducts();
-
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CatalogSnapshot.Snapshot catalog = productService.findCatalogSnapshot();
+
+        // The body is already serialized; a matching If-None-Match still turns this into a 304
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(ETags.withCoding(catalog.etag(), "gzip"))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(catalog.gzip());
+        }
+        return response.eTag(catalog.etag()).body(catalog.json());
     }
 
     @Operation(
             summary = "Busca um Produto",
-            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem acessar detalhes de um produto específico"
+            description = "Usuários ADMIN, OPERADOR, ou CLIENTE podem acessar detalhes de um produto específico. " +
+                    "Envie o ETag recebido em If-None-Match para receber 304 quando o produto não mudou"
     )
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN', 'SCOPE_OPERADOR', 'SCOPE_CLIENTE')")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable("id") Long id) throws RuntimeException {
         ProductDTO product = productService.findProductById(id);
 
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().eTag(ETags.of(product.getVersion())).body(product);
     }
 
     @Operation(
@@ -103,4 +125,17 @@ public class ProductController {
             @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice) {
         return productService.findFilteredProducts(description, category, minPrice, maxPrice);
     }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
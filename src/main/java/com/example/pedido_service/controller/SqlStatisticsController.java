@@ -0,0 +1,48 @@
+package com.example.pedido_service.controller;
+
+import com.example.pedido_service.dto.SqlStatementStatsDTO;
+import com.example.pedido_service.monitoring.SqlStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "SQL statistics", description = "Latency of SQL statements by fingerprint")
+@RestController
+@RequestMapping("/admin/sql")
+public class SqlStatisticsController {
+
+    private final SqlStatistics sqlStatistics;
+
+    @Autowired
+    public SqlStatisticsController(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Operation(
+            summary = "Lista os statements SQL mais lentos",
+            description = "Apenas ADMIN pode consultar. Os statements são agrupados por fingerprint (SQL sem literais) " +
+                    "e ordenados pelo p99 de latência, em milissegundos"
+    )
+    @GetMapping
+    @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN')")
+    public ResponseEntity<List<SqlStatementStatsDTO>> getTopStatements(@RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(sqlStatistics.top(limit));
+    }
+
+    @Operation(
+            summary = "Zera as estatísticas SQL",
+            description = "Apenas ADMIN pode zerar as estatísticas coletadas"
+    )
+    @DeleteMapping
+    @PreAuthorize("hasAnyAuthority('SCOPE_ADMIN')")
+    public ResponseEntity<Void> resetStatistics() {
+        sqlStatistics.reset();
+
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,13 +2,18 @@ package com.example.pedido_service.controller;
 
 import com.example.pedido_service.dto.LoginRequestDTO;
 import com.example.pedido_service.dto.LoginResponseDTO;
+import com.example.pedido_service.dto.RefreshRequestDTO;
 import com.example.pedido_service.repository.UserRepository;
+import com.example.pedido_service.service.PasswordHasher;
+import com.example.pedido_service.service.PasswordHashingBusyException;
+import com.example.pedido_service.service.RefreshTokenService;
+import com.example.pedido_service.service.UserPrincipalCache;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
@@ -17,53 +22,88 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.stream.Collectors;
 
 @Tag(name = "Login", description = "User login")
 @RestController
 @RequestMapping("/auth")
 public class TokenController {
     private final JwtEncoder jwtEncoder;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
-    public TokenController(JwtEncoder jwtEncoder, BCryptPasswordEncoder passwordEncoder, UserRepository userRepository) {
+    public TokenController(JwtEncoder jwtEncoder, PasswordHasher passwordHasher, UserRepository userRepository,
+                           UserPrincipalCache userPrincipalCache, RefreshTokenService refreshTokenService) {
         this.jwtEncoder = jwtEncoder;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @Operation(
             summary = "Autenticação de usuários",
-            description = "Não é necessário estar autenticado para acessar este endpoint"
+            description = "Não é necessário estar autenticado para acessar este endpoint. Retorna também um refresh token para renovar a sessão sem reenviar a senha"
     )
     @PostMapping("/login")
+    @Timed(value = "auth.login", histogram = true)
     public ResponseEntity<LoginResponseDTO> login(@RequestBody LoginRequestDTO loginRequestDTO) {
-        var user = userRepository.findByUsername(loginRequestDTO.getUsername());
+        var user = userPrincipalCache.get(loginRequestDTO.getUsername());
 
-        if (user.isEmpty() || !passwordEncoder.matches(loginRequestDTO.getPassword(), user.get().getPassword()))
+        if (user.isEmpty() || !passwordHasher.matches(loginRequestDTO.getPassword(), user.get().passwordHash()))
             throw new BadCredentialsException("Invalid username or password");
 
+        // The password is at hand only now, so this is where hashes made with another work factor are upgraded
+        if (passwordHasher.needsRehash(user.get().passwordHash())) {
+            try {
+                userRepository.updatePassword(user.get().id(), passwordHasher.encode(loginRequestDTO.getPassword()));
+                userPrincipalCache.evict(user.get().username());
+            } catch (PasswordHashingBusyException e) {
+                // Not worth failing the login over; the next one upgrades it
+            }
+        }
+
+        return ResponseEntity.ok(respond(refreshTokenService.issue(user.get())));
+    }
+
+    @Operation(
+            summary = "Renovação da sessão",
+            description = "Troca um refresh token por um novo access token e um novo refresh token. Cada refresh token só pode ser usado uma vez; reutilizar um token já trocado revoga todas as sessões do usuário"
+    )
+    @PostMapping("/refresh")
+    @Timed(value = "auth.refresh", histogram = true)
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody RefreshRequestDTO refreshRequestDTO) {
+        return ResponseEntity.ok(respond(refreshTokenService.rotate(refreshRequestDTO.getRefreshToken())));
+    }
+
+    @Operation(
+            summary = "Encerramento da sessão",
+            description = "Revoga o refresh token informado. O access token continua válido até expirar"
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequestDTO refreshRequestDTO) {
+        refreshTokenService.revoke(refreshRequestDTO.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    private LoginResponseDTO respond(RefreshTokenService.Issued session) {
         var now = Instant.now();
         var expiresIn = 1800L;
 
-        var scopes = user.get().getRoles()
-                .stream()
-                .map(Enum::name)
-                .collect(Collectors.joining(" "));
-
         var claims = JwtClaimsSet.builder()
                 .issuer("pedidos-service")
-                .subject(String.valueOf(user.get().getId()))
+                .subject(String.valueOf(session.userId()))
                 .expiresAt(now.plusSeconds(expiresIn))
                 .issuedAt(now)
-                .claim("scope", scopes)
+                .claim("scope", session.scope())
                 .build();
 
         var jwtValue = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
 
-        return ResponseEntity.ok(new LoginResponseDTO(jwtValue, expiresIn));
+        return new LoginResponseDTO(jwtValue, expiresIn, session.token(), Duration.between(now, session.expiresAt()).toSeconds());
     }
 }
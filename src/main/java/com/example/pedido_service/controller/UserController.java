@@ -3,11 +3,13 @@ package com.example.pedido_service.controller;
 import com.example.pedido_service.dto.CreateUserDTO;
 import com.example.pedido_service.model.User;
 import com.example.pedido_service.repository.UserRepository;
+import com.example.pedido_service.service.PasswordHasher;
+import com.example.pedido_service.service.UserPrincipalCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,11 +21,14 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/user")
 public class UserController {
     private  final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public UserController(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    public UserController(UserRepository userRepository, PasswordHasher passwordHasher,
+                          UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Operation(
@@ -32,7 +37,7 @@ public class UserController {
     )
     @PostMapping
     public ResponseEntity<Void> createUser(@RequestBody CreateUserDTO userDTO) {
-        var userExists = userRepository.findByUsername(userDTO.getUsername());
+        var userExists = userPrincipalCache.get(userDTO.getUsername());
 
         if(userExists.isPresent()) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists");
@@ -40,10 +45,16 @@ public class UserController {
 
         var user = new User();
         user.setUsername(userDTO.getUsername());
-        user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+        user.setPassword(passwordHasher.encode(userDTO.getPassword()));
         user.setRoles(userDTO.getRoles());
 
-        userRepository.save(user);
+        // The unique index settles two signups racing past the check above
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists");
+        }
+        userPrincipalCache.evict(user.getUsername());
 
         return ResponseEntity.ok().build();
     }
@@ -0,0 +1,18 @@
+package com.example.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResultDTO {
+    private int index;
+
+    private boolean created;
+
+    private OrderDTO order;
+
+    private String error;
+}
@@ -1,6 +1,7 @@
 package com.example.pedido_service.dto;
 
 import com.example.pedido_service.enums.PaymentMethod;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,5 +22,6 @@ public class CreateOrderDTO {
     private Integer discount;
 
     @Min(value = 0, message = "Shipping Fee must be 0 (zero) or greater")
+    @Digits(integer = 15, fraction = 2, message = "Shipping Fee must have at most 2 (two) decimal places")
     private BigDecimal shippingFee;
 }
@@ -1,5 +1,6 @@
 package com.example.pedido_service.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -19,6 +20,7 @@ public class CreateProductDTO {
 
     @NotNull(message = "Price is required")
     @Positive(message = "Price must be greater than 0 (zero)")
+    @Digits(integer = 15, fraction = 2, message = "Price must have at most 2 (two) decimal places")
     private BigDecimal price;
 
     @NotBlank(message = "Category is required")
@@ -10,4 +10,6 @@ import lombok.NoArgsConstructor;
 public class LoginResponseDTO {
     private String acessToken;
     private Long expiresIn;
+    private String refreshToken;
+    private Long refreshExpiresIn;
 }
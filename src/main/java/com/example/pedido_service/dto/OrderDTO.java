@@ -32,4 +32,6 @@ public class OrderDTO {
 
     @Min(value = 0, message = "Shipping Fee must be 0 (zero) or greater")
     private BigDecimal shippingFee;
+
+    private Long version;
 }
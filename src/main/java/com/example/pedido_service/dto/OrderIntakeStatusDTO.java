@@ -0,0 +1,19 @@
+package com.example.pedido_service.dto;
+
+import com.example.pedido_service.enums.IntakeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeStatusDTO {
+    private String handle;
+
+    private IntakeStatus status;
+
+    private OrderDTO order;
+
+    private String error;
+}
@@ -28,4 +28,6 @@ public class ProductDTO {
     private int quantityStock;
 
     private boolean disabled;
+
+    private Long version;
 }
@@ -0,0 +1,24 @@
+package com.example.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatementStatsDTO {
+    private String fingerprint;
+
+    private long count;
+
+    private double meanMillis;
+
+    private double p50Millis;
+
+    private double p95Millis;
+
+    private double p99Millis;
+
+    private double maxMillis;
+}
@@ -0,0 +1,7 @@
+package com.example.pedido_service.enums;
+
+public enum IntakeStatus {
+    QUEUED,
+    CREATED,
+    REJECTED,
+}
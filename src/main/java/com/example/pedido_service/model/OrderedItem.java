@@ -14,7 +14,8 @@ import java.math.BigDecimal;
 public class OrderedItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordered_item_seq")
+    @SequenceGenerator(name = "ordered_item_seq", sequenceName = "ordered_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
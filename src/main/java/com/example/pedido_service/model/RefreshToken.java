@@ -0,0 +1,45 @@
+package com.example.pedido_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One issued refresh token, keyed by the SHA-256 of its value; the token itself is never stored.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_user_id", columnList = "userId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @Column(length = 43)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    // Roles are read again on every refresh through the principal cache, which is keyed by username
+    @Column(nullable = false)
+    private String username;
+
+    // The user's credentials version at login; a refresh after a password or role change revokes the session
+    @Column(nullable = false)
+    private long credentialsVersion;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Fixed at login and carried by every rotation, so refreshing cannot keep a session alive forever
+    @Column(nullable = false)
+    private Instant sessionExpiresAt;
+
+    // Spent tokens are kept until they expire so that replaying one can be detected
+    @Column(nullable = false)
+    private boolean rotated;
+}
@@ -6,13 +6,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_username", columnList = "username", unique = true))
 public class User {
 
     @Id
@@ -30,4 +31,23 @@ public class User {
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<UserRole> roles;
+
+    // Bumped whenever the password or the roles are set to something new, so refresh tokens issued before the change
+    // stop working; the login rehash writes the same password with a bulk update and leaves it alone
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long credentialsVersion;
+
+    public void setPassword(String password) {
+        if (!Objects.equals(this.password, password)) {
+            this.password = password;
+            credentialsVersion++;
+        }
+    }
+
+    public void setRoles(Set<UserRole> roles) {
+        if (!Objects.equals(this.roles, roles)) {
+            this.roles = roles;
+            credentialsVersion++;
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.pedido_service.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatements stats = RequestStatements.current();
+        if (stats != null) {
+            stats.statementPrepared(sql);
+        }
+        return sql;
+    }
+}
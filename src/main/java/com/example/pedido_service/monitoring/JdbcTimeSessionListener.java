@@ -0,0 +1,41 @@
+package com.example.pedido_service.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches to the current request.
+ * Hibernate creates one instance per session.
+ */
+public class JdbcTimeSessionListener extends BaseSessionEventListener {
+
+    // Statements and batches each keep their own start, so an event of one kind never ends the other's timing
+    private long statementStartedAt;
+    private long batchStartedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStartedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        elapsedSince(statementStartedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStartedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        elapsedSince(batchStartedAt);
+    }
+
+    private void elapsedSince(long startedAt) {
+        RequestStatements stats = RequestStatements.current();
+        if (stats != null) {
+            stats.jdbcTimeElapsed(System.nanoTime() - startedAt);
+        }
+    }
+}
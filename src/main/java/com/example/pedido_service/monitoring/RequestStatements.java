@@ -0,0 +1,72 @@
+package com.example.pedido_service.monitoring;
+
+/**
+ * SQL statements and JDBC time of the HTTP request being handled on the current thread.
+ * <p>
+ * Only work done on the request thread is counted; statements run by async or scheduled tasks are not.
+ */
+public final class RequestStatements {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private final int budget;
+    private final boolean failOnExceed;
+
+    private int statements;
+    private long jdbcNanos;
+
+    private RequestStatements(String handler, int budget, boolean failOnExceed) {
+        this.handler = handler;
+        this.budget = budget;
+        this.failOnExceed = failOnExceed;
+    }
+
+    public static RequestStatements begin(String handler, int budget, boolean failOnExceed) {
+        RequestStatements stats = new RequestStatements(handler, budget, failOnExceed);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    public static RequestStatements end() {
+        RequestStatements stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void statementPrepared(String sql) {
+        statements++;
+        // Failing at the statement that crosses the budget points the stack trace at the offending call
+        if (failOnExceed && statements > budget) {
+            throw new StatementBudgetExceededException(handler + " exceeded its budget of " + budget + " SQL statements at: " + sql);
+        }
+    }
+
+    void jdbcTimeElapsed(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public boolean isOverBudget() {
+        return statements > budget;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pedido_service.monitoring;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL so that statements differing only in literals, IN-list length or CASE arms share one entry.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern CASE_ARMS = Pattern.compile("(?:when \\? then \\? )+", Pattern.CASE_INSENSITIVE);
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+        fingerprint = PARAMETER_LIST.matcher(fingerprint).replaceAll("(?...)");
+        fingerprint = CASE_ARMS.matcher(fingerprint).replaceAll("when ? then ? ... ");
+        return fingerprint;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.pedido_service.monitoring;
+
+import com.example.pedido_service.dto.SqlStatementStatsDTO;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory latency distribution per SQL fingerprint, fed by {@link SqlTimingDataSource}.
+ * <p>
+ * Statements slower than {@code sql.monitoring.slow-threshold} are logged with the shape of their bind
+ * parameters (types, never values), at most once per fingerprint every {@code sql.monitoring.slow-log-interval}.
+ */
+@Component
+public class SqlStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatistics.class);
+
+    static final String OTHER = "(other)";
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    @Value("${sql.monitoring.max-fingerprints:500}")
+    private int maxFingerprints;
+
+    @Value("${sql.monitoring.slow-threshold:200ms}")
+    private Duration slowThreshold;
+
+    @Value("${sql.monitoring.slow-log-interval:10s}")
+    private Duration slowLogInterval;
+
+    public void record(String sql, long nanos, List<String> parameterShapes) {
+        String fingerprint = SqlFingerprint.of(sql);
+
+        StatementStats stats = statements.get(fingerprint);
+        if (stats == null) {
+            // Past the cap, new fingerprints share one bucket so the map cannot grow without bound
+            String key = statements.size() < maxFingerprints ? fingerprint : OTHER;
+            stats = statements.computeIfAbsent(key, k -> new StatementStats());
+        }
+        stats.record(nanos);
+
+        if (nanos >= slowThreshold.toNanos() && stats.shouldLogSlow(slowLogInterval.toNanos())) {
+            log.warn("Slow SQL took {} ms (suppressed since last report: {}): {} parameters={}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), stats.takeSuppressed(), fingerprint, parameterShapes);
+        }
+    }
+
+    public List<SqlStatementStatsDTO> top(int limit) {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SqlStatementStatsDTO::getP99Millis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    private static class StatementStats {
+        private final Histogram micros = new ConcurrentHistogram(3);
+        private final AtomicLong lastSlowLog = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong suppressedSlow = new AtomicLong();
+
+        void record(long nanos) {
+            micros.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+
+        boolean shouldLogSlow(long intervalNanos) {
+            long now = System.nanoTime();
+            long last = lastSlowLog.get();
+            if ((last == Long.MIN_VALUE || now - last >= intervalNanos) && lastSlowLog.compareAndSet(last, now)) {
+                return true;
+            }
+            suppressedSlow.incrementAndGet();
+            return false;
+        }
+
+        long takeSuppressed() {
+            return suppressedSlow.getAndSet(0);
+        }
+
+        SqlStatementStatsDTO snapshot(String fingerprint) {
+            Histogram copy = micros.copy();
+            return new SqlStatementStatsDTO(
+                    fingerprint,
+                    copy.getTotalCount(),
+                    copy.getMean() / 1000,
+                    copy.getValueAtPercentile(50) / 1000.0,
+                    copy.getValueAtPercentile(95) / 1000.0,
+                    copy.getValueAtPercentile(99) / 1000.0,
+                    copy.getMaxValue() / 1000.0
+            );
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pedido_service.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times every statement executed through the wrapped pool and hands it to {@link SqlStatistics}.
+ */
+public class SqlTimingDataSource extends DelegatingDataSource {
+
+    private final SqlStatistics sqlStatistics;
+
+    public SqlTimingDataSource(DataSource targetDataSource, SqlStatistics sqlStatistics) {
+        super(targetDataSource);
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, new StatementHandler((String) args[0]));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler((String) args[0]));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementHandler(null));
+            }
+            return result;
+        });
+    }
+
+    private class StatementHandler implements TargetHandler {
+        private final String preparedSql;
+        private final List<String> parameterShapes = new ArrayList<>();
+        // SQL queued on a plain statement with addBatch(sql); executeBatch itself carries none
+        private final List<String> batchedSql = new ArrayList<>();
+
+        StatementHandler(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object handle(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                recordShape(index, name.equals("setNull") ? null : args[1], name);
+                return invoke(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                switch (name) {
+                    case "addBatch" -> {
+                        if (preparedSql == null && args != null && args.length == 1) {
+                            batchedSql.add((String) args[0]);
+                        }
+                    }
+                    case "clearBatch" -> batchedSql.clear();
+                    case "clearParameters" -> parameterShapes.clear();
+                    default -> {
+                    }
+                }
+                return invoke(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                if (preparedSql != null) {
+                    sqlStatistics.record(preparedSql, nanos, List.copyOf(parameterShapes));
+                } else if (args != null && args.length > 0) {
+                    sqlStatistics.record((String) args[0], nanos, List.of());
+                } else if (!batchedSql.isEmpty()) {
+                    // One call ran every queued statement, so each is charged an equal share
+                    long share = nanos / batchedSql.size();
+                    batchedSql.forEach(sql -> sqlStatistics.record(sql, share, List.of()));
+                    batchedSql.clear();
+                }
+                parameterShapes.clear();
+            }
+        }
+
+        private void recordShape(int index, Object value, String setter) {
+            while (parameterShapes.size() < index) {
+                parameterShapes.add("?");
+            }
+            String shape = value == null ? "null" : setter.equals("setObject") ? value.getClass().getSimpleName() : setter.substring(3);
+            parameterShapes.set(index - 1, shape);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, TargetHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // Let pools and Hibernate unwrap to the driver's objects without going through the timing proxy
+            if (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor")) {
+                return invoke(target, method, args);
+            }
+            return handler.handle(target, method, args);
+        };
+        return (T) Proxy.newProxyInstance(SqlTimingDataSource.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.pedido_service.monitoring;
+
+public class StatementBudgetExceededException extends RuntimeException {
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
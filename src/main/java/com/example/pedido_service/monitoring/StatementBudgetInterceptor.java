@@ -0,0 +1,94 @@
+package com.example.pedido_service.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link RequestStatements} tally for every controller call and, when the request completes, records
+ * its statement count and JDBC time tagged with the handler (e.g. {@code OrderController.searchOrders}).
+ * Requests over budget are logged and counted, or fail outright with {@code statements.budget.fail-on-exceed}.
+ */
+@Component
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementBudgetInterceptor.class);
+
+    // Built once; each request only picks the handler's meter
+    private final Meter.MeterProvider<DistributionSummary> statements;
+    private final Meter.MeterProvider<Timer> jdbcTime;
+    private final Meter.MeterProvider<Counter> overBudget;
+
+    @Value("${statements.budget.default:30}")
+    private int defaultBudget;
+
+    @Value("${statements.budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    @Autowired
+    public StatementBudgetInterceptor(MeterRegistry meterRegistry) {
+        this.statements = DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements prepared per request")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.jdbcTime = Timer.builder("http.server.requests.jdbc")
+                .description("Time spent executing JDBC statements per request")
+                .withRegistry(meterRegistry);
+        this.overBudget = Counter.builder("http.server.requests.statements.over.budget")
+                .description("Requests that ran more SQL statements than their budget")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async redispatch only writes a result that was produced elsewhere
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        StatementBudget budget = handlerMethod.getMethodAnnotation(StatementBudget.class);
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        RequestStatements.begin(name, budget != null ? budget.value() : defaultBudget, failOnExceed);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(RequestStatements.end());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(RequestStatements.end());
+    }
+
+    private void record(RequestStatements stats) {
+        if (stats == null) {
+            return;
+        }
+
+        statements.withTag("handler", stats.getHandler()).record(stats.getStatements());
+        jdbcTime.withTag("handler", stats.getHandler()).record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.isOverBudget()) {
+            overBudget.withTag("handler", stats.getHandler()).increment();
+            log.warn("{} ran {} SQL statements (budget {}) taking {} ms in JDBC",
+                    stats.getHandler(), stats.getStatements(), stats.getBudget(), Duration.ofNanos(stats.getJdbcNanos()).toMillis());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.pedido_service.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event: a virtual thread that blocked while pinned to its carrier
+ * (inside a native frame, or in {@code synchronized} before Java 24) for longer than the threshold.
+ * <p>
+ * Every pinned block is timed in {@code jvm.threads.virtual.pinned}; the stack of one is logged per
+ * {@code monitoring.virtual-threads.pinned-log-interval}, so a hot pinning site cannot flood the log.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final int LOGGED_FRAMES = 20;
+
+    private final RecordingStream recording;
+    private final Timer pinned;
+    private final long logIntervalNanos;
+    private final AtomicLong lastLogged = new AtomicLong(System.nanoTime());
+
+    @Autowired
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${monitoring.virtual-threads.pinned-threshold:20ms}") Duration threshold,
+                                       @Value("${monitoring.virtual-threads.pinned-log-interval:10s}") Duration logInterval) {
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        this.logIntervalNanos = logInterval.toNanos();
+        this.lastLogged.addAndGet(-logIntervalNanos);
+
+        this.recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    public void close() {
+        recording.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        long now = System.nanoTime();
+        long last = lastLogged.get();
+        if (now - last >= logIntervalNanos && lastLogged.compareAndSet(last, now) && event.getStackTrace() != null) {
+            String frames = event.getStackTrace().getFrames().stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(VirtualThreadPinningMonitor::describe)
+                    .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+            log.warn("Virtual thread pinned for {}ms{}", event.getDuration().toMillis(), frames);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
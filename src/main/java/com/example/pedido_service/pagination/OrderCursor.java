@@ -0,0 +1,43 @@
+package com.example.pedido_service.pagination;
+
+import com.example.pedido_service.dto.OrderDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for order listings, built from the last returned (dateCreated, id) pair.
+ */
+public record OrderCursor(LocalDateTime dateCreated, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor of(OrderDTO order) {
+        return new OrderCursor(order.getDateCreated(), order.getId());
+    }
+
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = dateCreated + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
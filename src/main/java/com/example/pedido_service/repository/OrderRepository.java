@@ -1,8 +1,24 @@
 package com.example.pedido_service.repository;
 
 import com.example.pedido_service.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
+
+    @EntityGraph(attributePaths = {"products", "products.product"})
+    Optional<Order> findWithProductsById(Long id);
+
+    @EntityGraph(attributePaths = {"products", "products.product"})
+    List<Order> findWithProductsByIdIn(Collection<Long> ids);
+
+    // One row per item: the order's version with each product's id and description, as an order renders them
+    @Query("select o.version, p.id, p.description from Order o left join o.products i left join i.product p where o.id = :id")
+    List<Object[]> findRevisionById(Long id);
 }
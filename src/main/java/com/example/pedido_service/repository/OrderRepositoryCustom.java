@@ -0,0 +1,14 @@
+package com.example.pedido_service.repository;
+
+import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+    Stream<Order> streamAll(Specification<Order> spec, int fetchSize);
+
+    List<OrderDTO> findPageAsDto(Specification<Order> spec, int limit);
+}
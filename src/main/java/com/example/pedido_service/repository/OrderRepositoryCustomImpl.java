@@ -0,0 +1,126 @@
+package com.example.pedido_service.repository;
+
+import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.dto.OrderedItemDTO;
+import com.example.pedido_service.enums.OrderStatus;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Order;
+import com.example.pedido_service.model.OrderedItem;
+import com.example.pedido_service.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public OrderRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Forward-only cursor: rows are pulled fetchSize at a time instead of materializing the result set
+    @Override
+    public Stream<Order> streamAll(Specification<Order> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = cb.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Newest first, read as scalar tuples: no entity is hydrated or tracked by the persistence context
+    @Override
+    public List<OrderDTO> findPageAsDto(Specification<Order> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Order> root = query.from(Order.class);
+
+        query.multiselect(
+                root.get("id"),
+                root.get("dateCreated"),
+                root.get("status"),
+                root.get("paymentMethod"),
+                root.get("totalPrice"),
+                root.get("discount"),
+                root.get("shippingFee"),
+                root.get("version")
+        );
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("dateCreated")), cb.desc(root.get("id")));
+
+        Map<Long, OrderDTO> orders = new LinkedHashMap<>();
+        for (Tuple row : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            OrderDTO order = new OrderDTO(
+                    row.get(0, Long.class),
+                    row.get(1, LocalDateTime.class),
+                    row.get(2, OrderStatus.class),
+                    new ArrayList<>(),
+                    row.get(3, PaymentMethod.class),
+                    row.get(4, BigDecimal.class),
+                    row.get(5, Integer.class),
+                    row.get(6, BigDecimal.class),
+                    row.get(7, Long.class)
+            );
+            orders.put(order.getId(), order);
+        }
+
+        if (!orders.isEmpty()) {
+            addItems(orders);
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    // Items of every order on the page in one query
+    private void addItems(Map<Long, OrderDTO> orders) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<OrderedItem> item = query.from(OrderedItem.class);
+        Join<OrderedItem, Product> product = item.join("product");
+
+        query.multiselect(
+                item.get("order").get("id"),
+                product.get("id"),
+                product.get("description"),
+                item.get("unitaryPrice"),
+                item.get("quantity")
+        );
+        query.where(item.get("order").get("id").in(orders.keySet()));
+        query.orderBy(cb.asc(item.get("id")));
+
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            orders.get(row.get(0, Long.class)).getProducts().add(new OrderedItemDTO(
+                    row.get(1, Long.class),
+                    row.get(2, String.class),
+                    row.get(3, BigDecimal.class),
+                    row.get(4, Integer.class)
+            ));
+        }
+    }
+}
@@ -1,11 +1,42 @@
 package com.example.pedido_service.repository;
 
+import com.example.pedido_service.dto.ProductDTO;
 import com.example.pedido_service.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     Optional<Product> findByDescription(String name);
-}
\ No newline at end of file
+
+    @Query("select p.id from Product p order by p.id")
+    List<Long> findAllIds();
+
+    @Query("select p.id, p.description from Product p")
+    List<Object[]> findAllDescriptions();
+
+    // The committed row, for write paths that must not trust the catalog cache's price or disabled flag
+    @Query("select new com.example.pedido_service.dto.ProductDTO(p.id, p.description, p.price, p.category, p.quantityStock, p.disabled, p.version) " +
+            "from Product p where p.id in :ids")
+    List<ProductDTO> findCurrentByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Product> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Product p set p.quantityStock = p.quantityStock - :quantity, p.version = p.version + 1 " +
+            "where p.id = :id and p.disabled = false and p.quantityStock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.quantityStock = p.quantityStock + :quantity, p.version = p.version + 1 where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+}
@@ -0,0 +1,14 @@
+package com.example.pedido_service.repository;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    int incrementStock(Map<Long, Integer> quantities);
+
+    List<ProductDTO> findAllAsDto(Specification<Product> spec);
+}
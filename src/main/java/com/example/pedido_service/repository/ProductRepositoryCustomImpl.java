@@ -0,0 +1,97 @@
+package com.example.pedido_service.repository;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Keeps each statement's CASE arms and IN list well under the driver's bind parameter limit
+    private static final int MAX_PRODUCTS_PER_STATEMENT = 1000;
+
+    private final EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // update product set quantity_stock = quantity_stock + case id when ? then ? ... end where id in (...)
+    @Override
+    public int incrementStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        int updated = 0;
+
+        for (int from = 0; from < entries.size(); from += MAX_PRODUCTS_PER_STATEMENT) {
+            List<Map.Entry<Long, Integer>> chunk = entries.subList(from, Math.min(from + MAX_PRODUCTS_PER_STATEMENT, entries.size()));
+            List<Long> ids = chunk.stream().map(Map.Entry::getKey).toList();
+
+            // The UPDATE locks rows in whatever order the plan scans them; taking the locks first in ascending id
+            // order keeps it from deadlocking with checkouts, which lock their products the same way
+            lockInIdOrder(ids);
+
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+            Root<Product> root = update.from(Product.class);
+
+            CriteriaBuilder.SimpleCase<Long, Integer> increment = cb.selectCase(root.get("id"));
+            chunk.forEach(entry -> increment.when(entry.getKey(), entry.getValue()));
+            increment.otherwise(0);
+
+            update.set(root.<Integer>get("quantityStock"), cb.sum(root.get("quantityStock"), increment));
+            update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+            update.where(root.get("id").in(ids));
+
+            updated += entityManager.createQuery(update).executeUpdate();
+        }
+
+        return updated;
+    }
+
+    private void lockInIdOrder(List<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(root.get("id"))
+                .where(root.get("id").in(ids))
+                .orderBy(cb.asc(root.get("id")));
+
+        entityManager.createQuery(query).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+    }
+
+    // Builds the DTOs straight from the selected columns, without managed entities
+    @Override
+    public List<ProductDTO> findAllAsDto(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDTO> query = cb.createQuery(ProductDTO.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(cb.construct(ProductDTO.class,
+                root.get("id"),
+                root.get("description"),
+                root.get("price"),
+                root.get("category"),
+                root.get("quantityStock"),
+                root.get("disabled"),
+                root.get("version")
+        ));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query).getResultList();
+    }
+}
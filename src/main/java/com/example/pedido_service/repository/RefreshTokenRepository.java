@@ -0,0 +1,25 @@
+package com.example.pedido_service.repository;
+
+import com.example.pedido_service.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    // Conditional, so two concurrent refreshes with the same token cannot both succeed
+    @Modifying
+    @Query("update RefreshToken t set t.rotated = true where t.tokenHash = :tokenHash and t.rotated = false")
+    int markRotated(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.userId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
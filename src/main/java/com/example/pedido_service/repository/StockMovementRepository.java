@@ -0,0 +1,20 @@
+package com.example.pedido_service.repository;
+
+import com.example.pedido_service.model.StockMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findAllByOrderByIdAsc(Limit limit);
+
+    // Single statement, so the product row and its pending movements come from the same snapshot
+    @Query("select p.quantityStock + coalesce((select sum(m.quantity) from StockMovement m where m.productId = p.id), 0) " +
+            "from Product p where p.id = :productId")
+    Optional<Long> findAvailableStock(@Param("productId") Long productId);
+}
@@ -0,0 +1,153 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The product catalog served by {@code GET /products}, kept as ready-to-send UTF-8 JSON plus a gzip variant.
+ * <p>
+ * Product writes in {@link ProductService} request a rebuild after commit; rebuilds run on the task executor, are
+ * coalesced while one is pending and swap the new snapshot in with a single volatile write, so readers always see
+ * a complete snapshot. Stock-only changes (orders, ledger flushes) do not trigger a rebuild each: a scheduled check
+ * rebuilds when {@link ProductCache} has been invalidated since the current snapshot was taken, which bounds how
+ * stale the displayed stock can get.
+ */
+@Component
+public class CatalogSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final ProductCache productCache;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot current;
+
+    @Autowired
+    public CatalogSnapshot(ProductCache productCache, ObjectMapper objectMapper,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productCache = productCache;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * The current snapshot, built on the caller's thread only if none has been built yet.
+     */
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requestRebuild();
+            return;
+        }
+
+        TransactionSynchronization rebuild = new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestRebuild();
+            }
+        };
+        TransactionSynchronizationManager.registerSynchronization(rebuild);
+    }
+
+    public void requestRebuild() {
+        // A rebuild that has not started yet will read the latest state anyway
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            rebuildPending.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Catalog snapshot rebuild failed, keeping the previous one", e);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        requestRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${products.catalog.snapshot.refresh-interval-ms:5000}")
+    public void refreshIfStale() {
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.modifications() != productCache.modifications()) {
+            requestRebuild();
+        }
+    }
+
+    // Serialized so a slow build can never swap in over a newer one; a lock rather than a monitor, because the
+    // build may load the catalog over JDBC and a virtual thread blocked inside synchronized pins its carrier
+    Snapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            long modifications = productCache.modifications();
+            List<ProductDTO> products = productCache.getCatalog();
+
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(products);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize the product catalog", e);
+            }
+
+            Snapshot snapshot = new Snapshot(json, gzip(json), etag(products), modifications);
+            current = snapshot;
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Every write bumps some row's version, so the sum only grows; the count catches inserts
+    private static String etag(List<ProductDTO> products) {
+        long versions = 0;
+        for (ProductDTO product : products) {
+            versions += product.getVersion();
+        }
+        return "\"" + products.size() + "-" + versions + "\"";
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * An immutable catalog rendering; the arrays are shared and must not be modified.
+     */
+    public record Snapshot(byte[] json, byte[] gzip, String etag, long modifications) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.BatchOrderResultDTO;
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.OrderIntakeStatusDTO;
+import com.example.pedido_service.enums.IntakeStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order intake: {@code POST /orders} validates the order, queues it and answers 202 with a handle.
+ * <p>
+ * A single worker drains the bounded queue into {@link OrderService#createOrders}, committing up to
+ * {@code orders.intake.batch-size} orders per transaction. There is no linger: while one batch commits the next one
+ * accumulates, so batches grow with load. A full queue is rejected with {@link OrderIntakeFullException} instead of
+ * blocking the request thread. Queued orders live in memory only, so the queue is drained on shutdown but lost if
+ * the process dies; clients that never see their handle leave {@code QUEUED} should resubmit.
+ * <p>
+ * Queued handles are tracked apart from the bounded status cache, so they cannot be evicted before their batch
+ * commits; only finished results are subject to {@code orders.intake.status.maximum-size} and the retention.
+ */
+@Service
+public class OrderIntake {
+    private static final Logger log = LoggerFactory.getLogger(OrderIntake.class);
+
+    private final OrderService orderService;
+    private final BlockingQueue<QueuedOrder> queue;
+    // At most one entry per queued or in-flight order, so bounded by the queue capacity plus one batch
+    private final Map<String, OrderIntakeStatusDTO> pending = new ConcurrentHashMap<>();
+    private final Cache<String, OrderIntakeStatusDTO> statuses;
+    private final int batchSize;
+
+    private final Counter full;
+    private final Timer batchCommit;
+    private final DistributionSummary batchSizes;
+
+    @Value("${orders.intake.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.intake.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public OrderIntake(OrderService orderService, MeterRegistry meterRegistry,
+                       @Value("${orders.intake.queue-capacity:10000}") int queueCapacity,
+                       @Value("${orders.intake.batch-size:200}") int batchSize,
+                       @Value("${orders.batch.max-size:1000}") int maxBatchSize,
+                       @Value("${orders.intake.status.maximum-size:100000}") long maximumStatuses,
+                       @Value("${orders.intake.status.retention:1h}") Duration statusRetention) {
+        // OrderService rejects larger batches outright, which would reject every order of a full drain
+        if (batchSize < 1 || batchSize > maxBatchSize) {
+            throw new IllegalStateException("orders.intake.batch-size must be between 1 and orders.batch.max-size ("
+                    + maxBatchSize + "), was " + batchSize);
+        }
+
+        this.orderService = orderService;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maximumStatuses)
+                .expireAfterWrite(statusRetention)
+                .build();
+
+        meterRegistry.gauge("orders.intake.queue.size", queue, BlockingQueue::size);
+        this.full = meterRegistry.counter("orders.intake.full");
+        this.batchCommit = Timer.builder("orders.intake.batch")
+                .description("Time to commit one batch of queued orders")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.intake.batch.size")
+                .description("Orders committed per intake transaction")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public OrderIntakeStatusDTO submit(CreateOrderDTO orderDTO) throws RuntimeException {
+        // Unknown and disabled products are rejected now; stock is only decided when the batch commits
+        orderService.validateOrder(orderDTO);
+
+        String handle = UUID.randomUUID().toString();
+        OrderIntakeStatusDTO status = new OrderIntakeStatusDTO(handle, IntakeStatus.QUEUED, null, null);
+        pending.put(handle, status);
+
+        if (!queue.offer(new QueuedOrder(handle, orderDTO))) {
+            pending.remove(handle);
+            full.increment();
+            throw new OrderIntakeFullException("Order intake queue is full, retry later");
+        }
+        return status;
+    }
+
+    public OrderIntakeStatusDTO findStatus(String handle) throws RuntimeException {
+        // Results are stored before the pending entry is dropped, so this order never misses a handle in between
+        OrderIntakeStatusDTO status = pending.get(handle);
+        if (status == null) {
+            status = statuses.getIfPresent(handle);
+        }
+        if (status == null) {
+            throw new EntityNotFoundException("Order handle not found");
+        }
+        return status;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("order-intake").daemon().start(this::drain);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(shutdownTimeout.toMillis());
+        if (!queue.isEmpty()) {
+            log.warn("Order intake stopped with {} orders still queued", queue.size());
+        }
+    }
+
+    private void drain() {
+        List<QueuedOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake batch of {} orders failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<QueuedOrder> batch) {
+        List<CreateOrderDTO> orders = batch.stream().map(QueuedOrder::order).toList();
+
+        List<BatchOrderResultDTO> results;
+        try {
+            results = batchCommit.record(() -> orderService.createOrders(orders));
+        } catch (RuntimeException e) {
+            // The whole transaction rolled back; retry one by one so a single bad order cannot sink the others
+            if (batch.size() > 1) {
+                batch.forEach(queued -> commit(List.of(queued)));
+            } else {
+                reject(batch.get(0), e.getMessage());
+            }
+            return;
+        }
+
+        batchSizes.record(batch.size());
+        for (BatchOrderResultDTO result : results) {
+            String handle = batch.get(result.getIndex()).handle();
+            if (result.isCreated()) {
+                finish(new OrderIntakeStatusDTO(handle, IntakeStatus.CREATED, result.getOrder(), null));
+            } else {
+                finish(new OrderIntakeStatusDTO(handle, IntakeStatus.REJECTED, null, result.getError()));
+            }
+        }
+    }
+
+    private void reject(QueuedOrder queued, String error) {
+        finish(new OrderIntakeStatusDTO(queued.handle(), IntakeStatus.REJECTED, null, error));
+    }
+
+    private void finish(OrderIntakeStatusDTO status) {
+        statuses.put(status.getHandle(), status);
+        pending.remove(status.getHandle());
+    }
+
+    private record QueuedOrder(String handle, CreateOrderDTO order) {
+    }
+}
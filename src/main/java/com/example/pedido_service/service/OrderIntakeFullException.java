@@ -0,0 +1,7 @@
+package com.example.pedido_service.service;
+
+public class OrderIntakeFullException extends RuntimeException {
+    public OrderIntakeFullException(String message) {
+        super(message);
+    }
+}
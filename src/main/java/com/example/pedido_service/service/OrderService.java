@@ -5,32 +5,92 @@ import com.example.pedido_service.enums.OrderStatus;
 import com.example.pedido_service.model.Order;
 import com.example.pedido_service.model.OrderedItem;
 import com.example.pedido_service.model.Product;
+import com.example.pedido_service.pagination.OrderCursor;
 import com.example.pedido_service.repository.OrderRepository;
 import com.example.pedido_service.repository.ProductRepository;
 import com.example.pedido_service.specification.OrderSpecification;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "orders.service", histogram = true)
 public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final ProductCache productCache;
+    private final EntityManager entityManager;
+
+    private final Counter productNotFound;
+    private final Counter productInactive;
+    private final Counter insufficientStock;
+    private final Counter cancellations;
+    private final Timer stockReservation;
+
+    @Value("${orders.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${orders.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${orders.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${orders.export.fetch-size:500}")
+    private int exportFetchSize;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository, StockLedger stockLedger, ProductCache productCache, EntityManager entityManager, MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.stockLedger = stockLedger;
+        this.productCache = productCache;
+        this.entityManager = entityManager;
+
+        this.productNotFound = meterRegistry.counter("orders.stock.check.failures", "reason", "not_found");
+        this.productInactive = meterRegistry.counter("orders.stock.check.failures", "reason", "inactive");
+        this.insufficientStock = meterRegistry.counter("orders.stock.insufficient");
+        this.cancellations = meterRegistry.counter("orders.cancelled");
+        this.stockReservation = Timer.builder("orders.stock.reservation")
+                .description("Time to reserve stock for one product, including lock waits")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    @Transactional
     public OrderDTO createOrder(CreateOrderDTO orderDTO) throws RuntimeException {
         Order order = convertToEntity(orderDTO);
 
@@ -42,152 +102,435 @@ public class OrderService {
         return convertToDto(savedOrder);
     }
 
-    public List<OrderDTO> findAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    /**
+     * Rejects orders for unknown or disabled products from the product cache, without touching stock. Only a
+     * pre-check: the write transaction checks again against the database.
+     */
+    public void validateOrder(CreateOrderDTO orderDTO) throws RuntimeException {
+        Set<Long> ids = mergeQuantities(orderDTO.getProducts()).keySet();
+        Map<Long, ProductDTO> products = requireAll(productCache.getAll(ids), ids);
+        products.values().forEach(this::checkActive);
+    }
+
+    @Transactional
+    public List<BatchOrderResultDTO> createOrders(List<CreateOrderDTO> orderDTOs) throws RuntimeException {
+        if (orderDTOs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch accepts at most " + maxBatchSize + " orders");
+        }
+
+        // Without the ledger, every product of the batch is locked once, in ascending id order, before any order takes stock
+        Set<Long> productIds = new TreeSet<>();
+        orderDTOs.forEach(orderDTO -> productIds.addAll(mergeQuantities(orderDTO.getProducts()).keySet()));
+        stockLedger.lockForReservation(productIds);
+        Map<Long, ProductDTO> current = currentProducts(productIds);
+
+        List<BatchOrderResultDTO> results = new ArrayList<>(orderDTOs.size());
+        List<Order> accepted = new ArrayList<>(orderDTOs.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < orderDTOs.size(); i++) {
+            try {
+                Order order = convertToEntity(orderDTOs.get(i), ids -> requireAll(current, ids));
+                order.setStatus(OrderStatus.PENDING);
+                order.setDateCreated(now);
+
+                accepted.add(order);
+                results.add(new BatchOrderResultDTO(i, true, null, null));
+            } catch (EntityNotFoundException | IllegalStateException e) {
+                results.add(new BatchOrderResultDTO(i, false, null, e.getMessage()));
+            }
+        }
+
+        // Sequence-generated ids let Hibernate send the order and item inserts as JDBC batches
+        Iterator<Order> savedOrders = orderRepository.saveAll(accepted).iterator();
+        for (BatchOrderResultDTO result : results) {
+            if (result.isCreated()) {
+                result.setOrder(convertToDto(savedOrders.next()));
+            }
+        }
+
+        return results;
+    }
+
+    public CursorPageDTO<OrderDTO> findAllOrders(String cursor, Integer size) {
+        return findOrderPage(Specification.where(null), cursor, size);
+    }
+
+    /**
+     * Identifies what {@link #findOrderById} renders: the order's version plus its products' descriptions, which
+     * change without touching the order. Reads only those columns, so revalidating an unchanged order stays cheap.
+     */
+    public String findOrderRevision(Long id) throws RuntimeException {
+        List<Object[]> rows = orderRepository.findRevisionById(id);
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("Order not found");
+        }
+
+        Map<Long, String> descriptions = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                descriptions.put((Long) row[1], (String) row[2]);
+            }
+        }
+        return revision((Long) rows.get(0)[0], descriptions);
+    }
+
+    public String revisionOf(OrderDTO order) {
+        Map<Long, String> descriptions = new HashMap<>();
+        order.getProducts().forEach(item -> descriptions.put(item.getProductId(), item.getProductDescription()));
+        return revision(order.getVersion(), descriptions);
+    }
+
+    // Digests the descriptions sorted by product id, so both sides agree whatever order the items come in
+    private static String revision(long version, Map<Long, String> descriptions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new TreeMap<>(descriptions).forEach((productId, description) -> {
+                String value = String.valueOf(description);
+                // Length-prefixed so no description can run into the next entry
+                digest.update((productId + ":" + value.length() + ":" + value).getBytes(StandardCharsets.UTF_8));
+            });
+            return version + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public OrderDTO findOrderById(Long id) throws RuntimeException {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithProductsById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
 
         return convertToDto(order);
     }
 
+    @Transactional
     public OrderDTO cancelOrderById(Long id) throws RuntimeException {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithProductsById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
 
         if (order.getStatus() != OrderStatus.PENDING) {
             throw new IllegalStateException("Only PENDING orders can be cancelled.");
         }
 
-        for (OrderedItem orderedItem : order.getProducts()) {
-            Product product = orderedItem.getProduct();
-            product.setQuantityStock(product.getQuantityStock() + orderedItem.getQuantity());
-            productRepository.save(product);
+        cancel(List.of(order));
+        // Flushing bumps the version now, so the returned order carries the one its ETag will use
+        orderRepository.saveAndFlush(order);
+
+        return convertToDto(order);
+    }
+
+    @Transactional
+    public List<OrderDTO> cancelOrders(List<Long> ids) throws RuntimeException {
+        Set<Long> orderIds = new LinkedHashSet<>(ids);
+        if (orderIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch accepts at most " + maxBatchSize + " orders");
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        Map<Long, Order> loaded = orderRepository.findWithProductsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<Order> orders = new ArrayList<>(orderIds.size());
+        for (Long id : orderIds) {
+            Order order = loaded.get(id);
+            if (order == null) {
+                throw new EntityNotFoundException("Order not found: " + id);
+            }
+            if (order.getStatus() != OrderStatus.PENDING) {
+                throw new IllegalStateException("Only PENDING orders can be cancelled: " + id);
+            }
+            orders.add(order);
+        }
 
-        return convertToDto(order);
+        cancel(orders);
+        orderRepository.flush();
+
+        return orders.stream().map(this::convertToDto).toList();
     }
 
+    // Stock of every item across the orders is given back as one aggregated increment per product
+    private void cancel(List<Order> orders) {
+        Map<Long, Integer> restored = new TreeMap<>();
+        for (Order order : orders) {
+            order.getProducts().forEach(item -> restored.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+            order.setStatus(OrderStatus.CANCELLED);
+        }
+
+        stockLedger.releaseAll(restored);
+        cancellations.increment(orders.size());
+    }
+
+    @Transactional
     public OrderDTO updateOrder(Long id, UpdateOrderDTO orderDTO) throws RuntimeException {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithProductsById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
 
         if (order.getStatus() == OrderStatus.CANCELLED) {
             throw new IllegalStateException("Cannot update CANCELLED orders.");
         }
 
-        for (OrderedItem oldItem : order.getProducts()) {
-            Product product = oldItem.getProduct();
-            product.setQuantityStock(product.getQuantityStock() + oldItem.getQuantity());
-            productRepository.save(product);
-        }
-
         order.setDiscount(orderDTO.getDiscount());
         order.setShippingFee(orderDTO.getShippingFee());
         order.setStatus(orderDTO.getStatus());
 
-        List<OrderedItem> updatedItems = orderDTO.getProducts().stream().map(itemDTO -> {
-            Product product = checkProduct(itemDTO);
-
-            OrderedItem item = new OrderedItem();
-            item.setOrder(order);
-            item.setProduct(product);
-            item.setQuantity(itemDTO.getQuantity());
-            item.setUnitaryPrice(product.getPrice());
-
-            return item;
-        }).collect(Collectors.toList());
-
-        order.getProducts().clear();
-        order.getProducts().addAll(updatedItems);
+        List<OrderedItem> updatedItems = applyItemChanges(order, orderDTO.getProducts());
 
         BigDecimal totalPrice = calculateTotalPrice(updatedItems, order.getDiscount(), order.getShippingFee());
         order.setTotalPrice(totalPrice);
 
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder = orderRepository.saveAndFlush(order);
         return convertToDto(updatedOrder);
     }
 
-    public List<OrderDTO> findFilteredOrders(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, BigDecimal minPrice, BigDecimal maxPrice) {
-        Specification<Order> spec = Specification
+    public CursorPageDTO<OrderDTO> findFilteredOrders(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, BigDecimal minPrice, BigDecimal maxPrice, String cursor, Integer size) {
+        return findOrderPage(filterSpec(status, startDate, endDate, minPrice, maxPrice), cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, BigDecimal minPrice, BigDecimal maxPrice, Consumer<OrderDTO> sink) {
+        try (Stream<Order> orders = orderRepository.streamAll(filterSpec(status, startDate, endDate, minPrice, maxPrice), exportFetchSize)) {
+            List<Order> chunk = new ArrayList<>(exportFetchSize);
+            Iterator<Order> iterator = orders.iterator();
+
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+
+                if (chunk.size() == exportFetchSize || !iterator.hasNext()) {
+                    fetchWithProducts(chunk).forEach(order -> sink.accept(convertToDto(order)));
+                    // Detach everything read so far, so memory stays flat however many orders are exported
+                    entityManager.clear();
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    private Specification<Order> filterSpec(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, BigDecimal minPrice, BigDecimal maxPrice) {
+        return Specification
                 .where(OrderSpecification.hasStatus(status))
                 .and(OrderSpecification.dateCreatedBetween(startDate, endDate))
                 .and(OrderSpecification.totalPriceBetween(minPrice, maxPrice));
+    }
 
-        return orderRepository.findAll(spec).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    private CursorPageDTO<OrderDTO> findOrderPage(Specification<Order> spec, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Specification<Order> pageSpec = spec.and(OrderSpecification.seekAfter(OrderCursor.decode(cursor)));
+
+        // Fetch one extra row to know whether another page exists without issuing a count query
+        List<OrderDTO> orders = orderRepository.findPageAsDto(pageSpec, pageSize + 1);
+
+        boolean hasNext = orders.size() > pageSize;
+        List<OrderDTO> content = hasNext ? orders.subList(0, pageSize) : orders;
+        String nextCursor = hasNext ? OrderCursor.of(content.get(pageSize - 1)).encode() : null;
+
+        return new CursorPageDTO<>(content, content.size(), nextCursor);
     }
 
-    private BigDecimal calculateTotalPrice(List<OrderedItem> orderedItems, int discount, BigDecimal shippingFee) {
-        BigDecimal totalPrice = orderedItems.stream()
-                .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Loads items and their products for the whole page in a single round trip, keeping the page order
+    private List<Order> fetchWithProducts(List<Order> page) {
+        if (page.isEmpty()) {
+            return page;
+        }
 
-        BigDecimal discountPercent = BigDecimal.valueOf(discount)
-                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        BigDecimal discountAmount = totalPrice.multiply(discountPercent);
-        totalPrice = totalPrice.subtract(discountAmount);
+        Map<Long, Order> loaded = orderRepository.findWithProductsByIdIn(page.stream().map(Order::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
 
-        totalPrice = totalPrice.add(shippingFee);
+        return page.stream().map(order -> loaded.get(order.getId())).toList();
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be greater than 0 (zero)");
+        }
+
+        return Math.min(size, maxPageSize);
+    }
+
+    BigDecimal calculateTotalPrice(List<OrderedItem> orderedItems, int discount, BigDecimal shippingFee) {
+        long subtotal = 0;
+        for (OrderedItem item : orderedItems) {
+            long unitPrice = PriceCalculator.toMinorUnits(item.getUnitaryPrice());
+            subtotal = Math.addExact(subtotal, PriceCalculator.lineTotal(unitPrice, item.getQuantity()));
+        }
 
-        return totalPrice;
+        long total = PriceCalculator.total(subtotal, discount, PriceCalculator.toMinorUnits(shippingFee));
+        return PriceCalculator.toDecimal(total);
     }
 
-    private Order convertToEntity(CreateOrderDTO orderDTO) {
+    Order convertToEntity(CreateOrderDTO orderDTO) {
+        return convertToEntity(orderDTO, this::loadProducts);
+    }
+
+    private Order convertToEntity(CreateOrderDTO orderDTO, Function<Collection<Long>, Map<Long, ProductDTO>> productLoader) {
         Order order = new Order();
         order.setPaymentMethod(orderDTO.getPaymentMethod());
         order.setDiscount(orderDTO.getDiscount());
         order.setShippingFee(orderDTO.getShippingFee());
 
-        List<OrderedItem> items = orderDTO.getProducts().stream().map(itemDTO -> {
+        List<OrderedItem> items = buildOrderedItems(order, orderDTO.getProducts(), productLoader);
+        order.setProducts(items);
+
+        BigDecimal totalPrice = calculateTotalPrice(order.getProducts(), order.getDiscount(), order.getShippingFee());
+
+        order.setTotalPrice(totalPrice);
+
+        return order;
+    }
+
+    private List<OrderedItem> buildOrderedItems(Order order, List<CreateOrderedItemDTO> itemDTOs,
+                                                Function<Collection<Long>, Map<Long, ProductDTO>> productLoader) {
+        Map<Long, Integer> quantities = mergeQuantities(itemDTOs);
+        Map<Long, ProductDTO> products = productLoader.apply(quantities.keySet());
+
+        // Decrement in ascending id order so concurrent orders sharing SKUs take row locks in the same sequence
+        Map<Long, Integer> reserved = new TreeMap<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+                checkProduct(products.get(entry.getKey()), entry.getValue());
+                reserved.put(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            // Hand back what this order already took, so a rejected order inside a batch leaves no trace
+            reserved.forEach(stockLedger::release);
+            throw e;
+        }
+
+        List<OrderedItem> items = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            ProductDTO product = products.get(productId);
+
             OrderedItem item = new OrderedItem();
             item.setOrder(order);
+            item.setProduct(productRepository.getReferenceById(productId));
+            item.setQuantity(quantity);
+            item.setUnitaryPrice(product.getPrice());
+
+            items.add(item);
+        });
+
+        return items;
+    }
 
-            Product product = checkProduct(itemDTO);
+    // Reconciles the order's items with the requested ones: stock moves only by each product's net
+    // difference and only new, changed or dropped lines are written
+    private List<OrderedItem> applyItemChanges(Order order, List<CreateOrderedItemDTO> itemDTOs) {
+        Map<Long, Integer> quantities = mergeQuantities(itemDTOs);
+        Map<Long, ProductDTO> products = loadProducts(quantities.keySet());
+
+        Map<Long, OrderedItem> existing = new LinkedHashMap<>();
+        Map<Long, Integer> deltas = new TreeMap<>();
+        Iterator<OrderedItem> iterator = order.getProducts().iterator();
+        while (iterator.hasNext()) {
+            OrderedItem item = iterator.next();
+            Long productId = item.getProduct().getId();
+            deltas.merge(productId, -item.getQuantity(), Integer::sum);
+
+            // Keep one line per product; duplicates and products no longer ordered are deleted
+            if (!quantities.containsKey(productId) || existing.putIfAbsent(productId, item) != null) {
+                iterator.remove();
+            }
+        }
 
-            item.setProduct(product);
-            item.setQuantity(itemDTO.getQuantity());
+        quantities.forEach((productId, quantity) -> {
+            deltas.merge(productId, quantity, Integer::sum);
+            checkActive(products.get(productId));
+        });
+
+        // Ascending id order, as on create, so concurrent writers take row locks in the same sequence
+        deltas.forEach((productId, delta) -> {
+            if (delta > 0) {
+                reserveStock(products.get(productId), delta);
+            } else if (delta < 0) {
+                stockLedger.release(productId, -delta);
+            }
+        });
+
+        quantities.forEach((productId, quantity) -> {
+            ProductDTO product = products.get(productId);
+            OrderedItem item = existing.get(productId);
+
+            if (item == null) {
+                item = new OrderedItem();
+                item.setOrder(order);
+                item.setProduct(productRepository.getReferenceById(productId));
+                order.getProducts().add(item);
+            }
+            // Unchanged values leave the row clean, so dirty checking skips its UPDATE
+            item.setQuantity(quantity);
             item.setUnitaryPrice(product.getPrice());
+        });
 
-            return item;
-        }).collect(Collectors.toList());
-        order.setProducts(items);
+        return order.getProducts();
+    }
 
-        BigDecimal totalPrice = calculateTotalPrice(order.getProducts(), order.getDiscount(), order.getShippingFee());
+    private Map<Long, Integer> mergeQuantities(List<CreateOrderedItemDTO> itemDTOs) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderedItemDTO itemDTO : itemDTOs) {
+            quantities.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
 
-        order.setTotalPrice(totalPrice);
+    private Map<Long, ProductDTO> loadProducts(Collection<Long> ids) {
+        return requireAll(currentProducts(ids), ids);
+    }
 
-        return order;
+    // Price and disabled flag as committed, read inside the write transaction: the catalog cache can lag
+    // behind both, and with the stock ledger enabled nothing else in the database rejects a disabled product
+    private Map<Long, ProductDTO> currentProducts(Collection<Long> ids) {
+        return productRepository.findCurrentByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+    }
+
+    private Map<Long, ProductDTO> requireAll(Map<Long, ProductDTO> products, Collection<Long> ids) {
+        for (Long id : ids) {
+            if (!products.containsKey(id)) {
+                productNotFound.increment();
+                throw new EntityNotFoundException("Product not found: " + id);
+            }
+        }
+
+        return products;
     }
 
-    private Product checkProduct(CreateOrderedItemDTO itemDTO) {
-        Product product = productRepository.findById(itemDTO.getProductId())
-                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + itemDTO.getProductId()));
+    private void checkProduct(ProductDTO product, int quantity) {
+        checkActive(product);
+        reserveStock(product, quantity);
+    }
 
+    private void checkActive(ProductDTO product) {
         if (product.isDisabled()) {
-            throw new IllegalStateException("Product is inactive and cannot be ordered: " + itemDTO.getProductId());
+            productInactive.increment();
+            throw new IllegalStateException("Product is inactive and cannot be ordered: " + product.getId());
+        }
+    }
+
+    private void reserveStock(ProductDTO product, int quantity) {
+        boolean reserved = stockReservation.record(() -> stockLedger.reserve(product.getId(), quantity));
+        if (!reserved) {
+            insufficientStock.increment();
+            throw new IllegalStateException("Insufficient stock for product " + product.getDescription());
         }
+    }
 
-        if (product.getQuantityStock() < itemDTO.getQuantity()) {
-            throw new IllegalStateException("Insufficient stock for product" + product.getDescription());
+    // Items built from the catalog cache hold uninitialized product references; describe them from the cache too
+    private String productDescription(Product product) {
+        if (Hibernate.isInitialized(product)) {
+            return product.getDescription();
         }
 
-        product.setQuantityStock(product.getQuantityStock() - itemDTO.getQuantity());
-        return product;
+        ProductDTO cached = productCache.get(product.getId());
+        return cached != null ? cached.getDescription() : product.getDescription();
     }
 
-    private OrderDTO convertToDto(Order order) {
+    OrderDTO convertToDto(Order order) {
         List<OrderedItemDTO> productDTOs = order.getProducts().stream().map(item -> new OrderedItemDTO(
                 item.getProduct().getId(),
-                item.getProduct().getDescription(),
+                productDescription(item.getProduct()),
                 item.getUnitaryPrice(),
                 item.getQuantity()
         )).toList();
@@ -200,7 +543,8 @@ public class OrderService {
                 order.getPaymentMethod(),
                 order.getTotalPrice(),
                 order.getDiscount(),
-                order.getShippingFee()
+                order.getShippingFee(),
+                order.getVersion()
         );
     }
 }
@@ -0,0 +1,138 @@
+package com.example.pedido_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on a small dedicated pool, so a login burst queues here instead of taking every request thread's CPU.
+ * <p>
+ * The pool has {@code auth.password.threads} threads and a queue of {@code auth.password.queue-capacity} hashes;
+ * beyond that callers get {@link PasswordHashingBusyException} right away. The work factor is
+ * {@code auth.password.bcrypt.strength}. With {@code auth.password.bcrypt.calibrate} it is raised at startup to
+ * the highest one that hashes within {@code auth.password.bcrypt.target-time} on this machine, but never lowered,
+ * and hashes are only ever upgraded, so nodes that calibrate differently cannot weaken each other's hashes.
+ */
+@Service
+public class PasswordHasher {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    static final int MIN_CALIBRATED_STRENGTH = 10;
+    static final int MAX_CALIBRATED_STRENGTH = 16;
+
+    private final int strength;
+    private final BCryptPasswordEncoder encoder;
+    private final ExecutorService executor;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${auth.password.bcrypt.strength:10}") int strength,
+                          @Value("${auth.password.bcrypt.calibrate:false}") boolean calibrate,
+                          @Value("${auth.password.bcrypt.target-time:250ms}") Duration targetTime,
+                          @Value("${auth.password.threads:0}") int threads,
+                          @Value("${auth.password.queue-capacity:100}") int queueCapacity) {
+        this.strength = calibrate ? Math.max(strength, calibrate(targetTime)) : strength;
+        this.encoder = new BCryptPasswordEncoder(this.strength);
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> Thread.ofPlatform().name("password-hashing-" + sequence.incrementAndGet()).daemon().unstarted(task));
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.hashing");
+
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashes refused because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.bcrypt.strength", () -> this.strength).register(meterRegistry);
+
+        log.info("BCrypt strength {} on {} hashing threads", this.strength, poolSize);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public String encode(CharSequence rawPassword) throws RuntimeException {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) throws RuntimeException {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether a hash that just matched was made with a lower work factor than the current one.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        // $2a$10$...: the cost is the two digits after the version
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    <T> T run(Callable<T> hash) {
+        try {
+            return executor.submit(hash).get();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many concurrent logins, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Every step up doubles the cost, so one timed hash is enough to place the target
+    static int calibrate(Duration targetTime) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_CALIBRATED_STRENGTH);
+        probe.encode("calibration");
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+
+        int calibrated = MIN_CALIBRATED_STRENGTH;
+        while (calibrated < MAX_CALIBRATED_STRENGTH && nanos * 2 <= targetTime.toNanos()) {
+            calibrated++;
+            nanos *= 2;
+        }
+        return calibrated;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.pedido_service.service;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
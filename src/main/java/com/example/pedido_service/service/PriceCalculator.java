@@ -0,0 +1,55 @@
+package com.example.pedido_service.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Order pricing in long minor units (cents), converting to {@link BigDecimal} only at the boundary.
+ * <p>
+ * Rounding rule: subtotals and shipping are exact in cents; the discount is applied to the whole subtotal in
+ * hundredths of a cent and the final total is rounded once to cents, half away from zero. That is exactly the
+ * value the previous BigDecimal computation produced once stored in the {@code numeric(38,2)} column.
+ */
+public final class PriceCalculator {
+
+    public static final int MINOR_UNIT_SCALE = 2;
+
+    private static final long PERCENT = 100;
+
+    private PriceCalculator() {
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(MINOR_UNIT_SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + MINOR_UNIT_SCALE + " decimal places: " + amount);
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+    }
+
+    public static long lineTotal(long unitPrice, int quantity) {
+        return Math.multiplyExact(unitPrice, quantity);
+    }
+
+    public static long total(long subtotal, int discountPercent, long shippingFee) {
+        // Hundredths of a cent: subtotal * (100 - discount) + shipping * 100, then one rounding back to cents
+        long scaled = Math.addExact(
+                Math.multiplyExact(subtotal, PERCENT - discountPercent),
+                Math.multiplyExact(shippingFee, PERCENT)
+        );
+        return divideHalfAwayFromZero(scaled, PERCENT);
+    }
+
+    private static long divideHalfAwayFromZero(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
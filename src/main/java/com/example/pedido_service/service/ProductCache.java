@@ -0,0 +1,174 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of product catalog entries keyed by id, bounded by size and time to live.
+ * <p>
+ * Callers get copies of the cached {@link ProductDTO}s, so mutating one never leaks into the cache. Entries can
+ * trail the database (an eviction may race a bulk load), so everything they carry is for display and
+ * pre-checks only: order writes read price and disabled flag again in their own transaction, and
+ * reservations always go through {@link StockLedger}, which checks stock at the source.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final LoadingCache<Long, ProductDTO> products;
+
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile List<Long> catalogIds;
+
+    @Autowired
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${products.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${products.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.productRepository = productRepository;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(new ProductLoader());
+    }
+
+    public ProductDTO get(Long id) {
+        ProductDTO product = products.get(id);
+        return product == null ? null : copy(product);
+    }
+
+    public Map<Long, ProductDTO> getAll(Collection<Long> ids) {
+        return products.getAll(ids).values().stream()
+                .collect(Collectors.toMap(ProductDTO::getId, this::copy));
+    }
+
+    public List<ProductDTO> getCatalog() {
+        List<Long> ids = catalogIds;
+        if (ids == null) {
+            long generation = catalogGeneration.get();
+            ids = productRepository.findAllIds();
+            // A product created while the ids were loading bumps the generation, so the stale list is not kept
+            if (catalogGeneration.get() == generation) {
+                catalogIds = ids;
+            }
+        }
+
+        Map<Long, ProductDTO> entries = products.getAll(ids);
+        return ids.stream().map(entries::get).filter(Objects::nonNull).map(this::copy).toList();
+    }
+
+    public void evictAfterCommit(Long id) {
+        evictAfterCommit(Set.of(id));
+    }
+
+    // Evicting after commit keeps a concurrent reader from re-caching the pre-commit row
+    public void evictAfterCommit(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll(ids);
+            return;
+        }
+
+        List<Long> evicted = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateAll(evicted);
+            }
+        });
+    }
+
+    public void invalidateCatalog() {
+        catalogGeneration.incrementAndGet();
+        catalogIds = null;
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * Count of invalidations so far; a reader that saw a lower value may hold entries that have since changed.
+     */
+    public long modifications() {
+        return modifications.get();
+    }
+
+    private void invalidateAll(Collection<Long> ids) {
+        products.invalidateAll(ids);
+        modifications.incrementAndGet();
+    }
+
+    public CacheStats stats() {
+        return products.stats();
+    }
+
+    public long size() {
+        return products.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+    }
+
+    private ProductDTO copy(ProductDTO product) {
+        return new ProductDTO(
+                product.getId(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getQuantityStock(),
+                product.isDisabled(),
+                product.getVersion()
+        );
+    }
+
+    private ProductDTO convertToDto(Product product) {
+        return new ProductDTO(
+                product.getId(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getQuantityStock(),
+                product.isDisabled(),
+                product.getVersion()
+        );
+    }
+
+    private class ProductLoader implements CacheLoader<Long, ProductDTO> {
+
+        @Override
+        public ProductDTO load(Long id) {
+            return productRepository.findById(id).map(ProductCache.this::convertToDto).orElse(null);
+        }
+
+        // Misses from a bulk lookup are resolved with a single IN query
+        @Override
+        public Map<Long, ProductDTO> loadAll(Set<? extends Long> ids) {
+            return productRepository.findAllById(List.copyOf(ids)).stream()
+                    .map(ProductCache.this::convertToDto)
+                    .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        }
+    }
+}
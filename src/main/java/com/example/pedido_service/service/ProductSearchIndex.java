@@ -0,0 +1,137 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process trigram inverted index over product descriptions, answering case-insensitive substring
+ * queries without the sequential scan a {@code LIKE '%term%'} forces on the database.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, String> descriptions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Object[] row : productRepository.findAllDescriptions()) {
+            Long id = (Long) row[0];
+            String description = normalize((String) row[1]);
+            // Entries written by updates that committed while the snapshot was loading are newer; keep them
+            if (descriptions.putIfAbsent(id, description) == null) {
+                addPostings(id, description);
+            }
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void putAfterCommit(Long id, String description) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(id, description);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(id, description);
+            }
+        });
+    }
+
+    /**
+     * Returns the ids of every product whose description contains {@code term}, ignoring case.
+     */
+    public Set<Long> search(String term) {
+        String needle = normalize(term);
+
+        if (needle.length() < GRAM) {
+            Set<Long> matches = new HashSet<>();
+            descriptions.forEach((id, description) -> {
+                if (description.contains(needle)) {
+                    matches.add(id);
+                }
+            });
+            return matches;
+        }
+
+        // Intersect starting from the rarest trigram, then drop candidates whose trigrams match out of order
+        List<Set<Long>> lists = grams(needle).stream()
+                .map(gram -> postings.getOrDefault(gram, Set.of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+
+        Set<Long> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+        candidates.removeIf(id -> !descriptions.getOrDefault(id, "").contains(needle));
+
+        return candidates;
+    }
+
+    private synchronized void put(Long id, String description) {
+        String normalized = normalize(description);
+        String previous = descriptions.put(id, normalized);
+
+        if (previous != null) {
+            if (previous.equals(normalized)) {
+                return;
+            }
+            for (String gram : grams(previous)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+        addPostings(id, normalized);
+    }
+
+    private void addPostings(Long id, String description) {
+        for (String gram : grams(description)) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
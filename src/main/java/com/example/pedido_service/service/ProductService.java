@@ -6,23 +6,38 @@ import com.example.pedido_service.dto.UpdateProductDTO;
 import com.example.pedido_service.model.Product;
 import com.example.pedido_service.repository.ProductRepository;
 import com.example.pedido_service.specification.ProductSpecifications;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
+@Timed(value = "products.service", histogram = true)
 public class ProductService {
+    // Above this many index hits an IN list costs more to bind and plan than the LIKE scan it replaces
+    static final int MAX_INDEXED_CANDIDATES = 500;
+
     private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogSnapshot catalogSnapshot;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, StockLedger stockLedger, ProductCache productCache,
+                          ProductSearchIndex productSearchIndex, CatalogSnapshot catalogSnapshot) {
         this.productRepository = productRepository;
+        this.stockLedger = stockLedger;
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
+        this.catalogSnapshot = catalogSnapshot;
     }
 
     public ProductDTO createProduct(CreateProductDTO productDTO) throws RuntimeException {
@@ -32,23 +47,27 @@ public class ProductService {
 
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        productCache.invalidateCatalog();
+        productSearchIndex.putAfterCommit(savedProduct.getId(), savedProduct.getDescription());
+        catalogSnapshot.rebuildAfterCommit();
 
         return convertToDto(savedProduct);
     }
 
-    public List<ProductDTO> findAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CatalogSnapshot.Snapshot findCatalogSnapshot() {
+        return catalogSnapshot.current();
     }
 
     public ProductDTO findProductById(Long id) throws RuntimeException {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+        ProductDTO product = productCache.get(id);
+        if (product == null) {
+            throw new EntityNotFoundException("Product not found");
+        }
 
-        return convertToDto(product);
+        return product;
     }
 
+    @Transactional
     public ProductDTO updateProduct(Long id, UpdateProductDTO productDTO) throws RuntimeException {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
@@ -56,11 +75,22 @@ public class ProductService {
         product.setDescription(productDTO.getDescription());
         product.setPrice(productDTO.getPrice());
         product.setCategory(productDTO.getCategory());
-        product.setQuantityStock(productDTO.getQuantityStock());
         product.setDisabled(productDTO.isDisabled());
-        product = productRepository.save(product);
 
-        return convertToDto(product);
+        // With the ledger enabled the stock column is write-behind, so the new level goes through the journal
+        if (stockLedger.isEnabled()) {
+            stockLedger.resetAvailable(id, productDTO.getQuantityStock());
+        } else {
+            product.setQuantityStock(productDTO.getQuantityStock());
+        }
+        product = productRepository.saveAndFlush(product);
+        productCache.evictAfterCommit(id);
+        productSearchIndex.putAfterCommit(id, product.getDescription());
+        catalogSnapshot.rebuildAfterCommit();
+
+        ProductDTO updated = convertToDto(product);
+        updated.setQuantityStock(productDTO.getQuantityStock());
+        return updated;
     }
 
     public void deleteProductById (Long id) throws RuntimeException {
@@ -70,17 +100,30 @@ public class ProductService {
         product.setDisabled(true);
 
         productRepository.save(product);
+        productCache.evictAfterCommit(id);
+        catalogSnapshot.rebuildAfterCommit();
     }
 
     public List<ProductDTO> findFilteredProducts(String description, String category, BigDecimal minPrice, BigDecimal maxPrice) {
-        Specification<Product> spec = Specification.where(ProductSpecifications.descriptionContains(description))
+        Specification<Product> descriptionSpec = ProductSpecifications.descriptionContains(description);
+
+        // Resolve the substring to candidate ids in memory; category and price are still filtered by the database
+        if (description != null && productSearchIndex.isReady()) {
+            Set<Long> ids = productSearchIndex.search(description);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            if (ids.size() <= MAX_INDEXED_CANDIDATES) {
+                descriptionSpec = ProductSpecifications.idIn(ids);
+            }
+        }
+
+        Specification<Product> spec = Specification.where(descriptionSpec)
                 .and(ProductSpecifications.categoryEquals(category))
                 .and(ProductSpecifications.priceGreaterThanOrEqualTo(minPrice))
                 .and(ProductSpecifications.priceLessThanOrEqualTo(maxPrice));
 
-        return productRepository.findAll(spec).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findAllAsDto(spec);
     }
 
     private Product convertToEntity(CreateProductDTO productDTO) {
@@ -92,14 +135,15 @@ public class ProductService {
         return product;
     }
 
-    private ProductDTO convertToDto(Product product) {
+    ProductDTO convertToDto(Product product) {
         return new ProductDTO(
                 product.getId(),
                 product.getDescription(),
                 product.getPrice(),
                 product.getCategory(),
                 product.getQuantityStock(),
-                product.isDisabled()
+                product.isDisabled(),
+                product.getVersion()
         );
     }
 }
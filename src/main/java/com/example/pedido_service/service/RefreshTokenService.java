@@ -0,0 +1,142 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.model.RefreshToken;
+import com.example.pedido_service.repository.RefreshTokenRepository;
+import com.example.pedido_service.service.UserPrincipalCache.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque, single-use refresh tokens.
+ * <p>
+ * Only the SHA-256 of a token is stored, so renewing a session is one primary-key lookup instead of a BCrypt check,
+ * and a leaked table holds nothing that can be presented. Every refresh spends the presented token and issues a new
+ * one. Spent tokens stay until they expire: presenting one again means it was copied, so all of that user's refresh
+ * tokens are revoked and the user has to log in again.
+ * <p>
+ * A token lives {@code auth.refresh-token.expires-in} but never past {@code auth.refresh-token.max-session} from the
+ * login that started its chain. The roles put in the new access token are read again on every refresh, and a
+ * password or role change since the login revokes the user's refresh tokens.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter reused;
+
+    @Value("${auth.refresh-token.expires-in:7d}")
+    private Duration expiresIn;
+
+    @Value("${auth.refresh-token.max-session:30d}")
+    private Duration maxSession;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserPrincipalCache userPrincipalCache,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userPrincipalCache = userPrincipalCache;
+        this.reused = Counter.builder("auth.refresh.reused")
+                .description("Spent refresh tokens presented again; each one revokes the user's refresh tokens")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public Issued issue(UserPrincipal user) {
+        return issue(user, Instant.now().plus(maxSession));
+    }
+
+    private Issued issue(UserPrincipal user, Instant sessionExpiresAt) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+
+        Instant expiresAt = Instant.now().plus(expiresIn);
+        if (expiresAt.isAfter(sessionExpiresAt)) {
+            expiresAt = sessionExpiresAt;
+        }
+        refreshTokenRepository.save(new RefreshToken(hash(token), user.id(), user.username(), user.credentialsVersion(),
+                expiresAt, sessionExpiresAt, false));
+        return new Issued(token, user.id(), user.scope(), expiresAt);
+    }
+
+    // The revocation on reuse must survive the exception that rejects the request
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Issued rotate(String token) throws RuntimeException {
+        String tokenHash = hash(token);
+        RefreshToken stored = refreshTokenRepository.findById(tokenHash)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        if (stored.isRotated() || refreshTokenRepository.markRotated(tokenHash) == 0) {
+            reused.increment();
+            int revoked = refreshTokenRepository.deleteAllByUserId(stored.getUserId());
+            log.warn("Spent refresh token presented again for user {}, revoked {} refresh tokens", stored.getUserId(), revoked);
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        UserPrincipal user = userPrincipalCache.get(stored.getUsername())
+                .filter(principal -> principal.id().equals(stored.getUserId()))
+                .orElse(null);
+        if (user == null || user.credentialsVersion() != stored.getCredentialsVersion()) {
+            int revoked = refreshTokenRepository.deleteAllByUserId(stored.getUserId());
+            log.info("Credentials of user {} changed since login, revoked {} refresh tokens", stored.getUserId(), revoked);
+            throw new BadCredentialsException("Refresh token revoked");
+        }
+
+        return issue(user, stored.getSessionExpiresAt());
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.deleteById(hash(token));
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    static String hash(String token) {
+        if (token == null || token.isBlank()) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A freshly issued token; {@code token} is the only copy of its value.
+     */
+    public record Issued(String token, Long userId, String scope, Instant expiresAt) {
+    }
+}
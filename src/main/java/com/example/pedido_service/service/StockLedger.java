@@ -0,0 +1,250 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.model.StockMovement;
+import com.example.pedido_service.repository.ProductRepository;
+import com.example.pedido_service.repository.StockMovementRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock reservation engine in front of {@link ProductRepository}.
+ * <p>
+ * Disabled (the default), every reservation is a guarded UPDATE on the product row. Enabled, reservations are
+ * decided against in-memory {@link StripedStockCounter}s and journaled as {@link StockMovement} inserts in the
+ * caller's transaction; a scheduled flush folds committed movements into {@code quantityStock} in batches.
+ * The journal is what makes restarts safe: counters are rebuilt from the product row plus pending movements,
+ * and any movement left over by a previous run is applied on startup. Only one application instance may run
+ * with the ledger enabled against the same database.
+ */
+@Service
+public class StockLedger {
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${stock.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${stock.ledger.stripes:0}")
+    private int stripes;
+
+    @Value("${stock.ledger.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Autowired
+    public StockLedger(ProductRepository productRepository, StockMovementRepository stockMovementRepository, ProductCache productCache, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.productCache = productCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Disabled, reservations update the product rows, so a batch takes their locks up front in ascending id order;
+    // enabled, reservations never touch the rows and locking them would only serialize checkouts again
+    public void lockForReservation(Collection<Long> productIds) {
+        if (!enabled) {
+            productRepository.findAllByIdInOrderByIdAsc(productIds);
+        }
+    }
+
+    public boolean reserve(Long productId, int quantity) {
+        if (!enabled) {
+            productCache.evictAfterCommit(productId);
+            return productRepository.decrementStock(productId, quantity) > 0;
+        }
+
+        requireTransaction();
+        StripedStockCounter counter = counterFor(productId);
+        if (!counter.tryReserve(quantity)) {
+            return false;
+        }
+
+        onCompletion(committed -> {
+            if (!committed) {
+                counter.release(quantity);
+            }
+        });
+        record(productId, -quantity);
+
+        return true;
+    }
+
+    public void release(Long productId, int quantity) {
+        if (!enabled) {
+            productCache.evictAfterCommit(productId);
+            productRepository.incrementStock(productId, quantity);
+            return;
+        }
+
+        requireTransaction();
+        StripedStockCounter counter = counterFor(productId);
+        record(productId, quantity);
+        onCompletion(committed -> {
+            if (committed) {
+                counter.release(quantity);
+            }
+        });
+    }
+
+    // Disabled, the whole restoration is a single set-based UPDATE; enabled, it is one journal insert per product
+    public void releaseAll(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        if (!enabled) {
+            productCache.evictAfterCommit(quantities.keySet());
+            productRepository.incrementStock(quantities);
+            return;
+        }
+
+        quantities.forEach(this::release);
+    }
+
+    public void resetAvailable(Long productId, int quantityStock) {
+        requireTransaction();
+        StripedStockCounter counter = counterFor(productId);
+
+        // The delta is taken at commit under the counter's lock, so reservations made while this transaction
+        // was open are accounted for; reservations arriving during the commit wait for the new level
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean begun;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                long delta = counter.beginReset(quantityStock);
+                begun = true;
+                record(productId, Math.toIntExact(delta));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (begun) {
+                    counter.endReset(status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${stock.ledger.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    // Movements journaled by a previous run are applied even if the ledger has since been disabled
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    public int flush() {
+        flushLock.lock();
+        try {
+            int total = 0;
+            int applied;
+            do {
+                applied = transactionTemplate.execute(status -> flushBatch());
+                total += applied;
+            } while (applied == flushBatchSize);
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushBatch() {
+        List<StockMovement> movements = stockMovementRepository.findAllByOrderByIdAsc(Limit.of(flushBatchSize));
+        if (movements.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockMovement movement : movements) {
+            deltas.merge(movement.getProductId(), movement.getQuantity(), Integer::sum);
+        }
+
+        // Only the movements read above are deleted; rows committed meanwhile wait for the next batch
+        deltas.values().removeIf(delta -> delta == 0);
+        productRepository.incrementStock(deltas);
+        stockMovementRepository.deleteAllByIdInBatch(movements.stream().map(StockMovement::getId).toList());
+        productCache.evictAfterCommit(deltas.keySet());
+
+        return movements.size();
+    }
+
+    // Loaded outside the map so the query never runs while holding a ConcurrentHashMap bin. It runs in the
+    // caller's transaction, which cannot have journaled anything for this product yet: no counter, no movements
+    private StripedStockCounter counterFor(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+
+        long available = stockMovementRepository.findAvailableStock(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + productId));
+        StripedStockCounter loaded = new StripedStockCounter(available, stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors());
+        StripedStockCounter raced = counters.putIfAbsent(productId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private void record(Long productId, int quantity) {
+        stockMovementRepository.save(new StockMovement(null, productId, quantity, LocalDateTime.now()));
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock ledger operations require an active transaction");
+        }
+    }
+
+    private void onCompletion(CompletionCallback callback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.pedido_service.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Available stock of one product split across independent cells, so concurrent reservations
+ * usually CAS different memory locations instead of contending on a single counter.
+ * <p>
+ * Cells never go negative. Setting an absolute level is a two-step reset bracketing the commit that
+ * journals it: {@link #beginReset} takes everything out of the cells under the lock and returns the
+ * delta to journal, {@link #endReset} puts the new level back in. Releases keep adding to the cells
+ * meanwhile, so every unit stays accounted for exactly once.
+ */
+final class StripedStockCounter {
+
+    private final AtomicLongArray cells;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Reservations that observe a reset in progress wait for it instead of failing against empty cells
+    private volatile boolean resetting;
+    private long drained;
+    private long target;
+
+    StripedStockCounter(long available, int stripes) {
+        this.cells = new AtomicLongArray(stripes);
+        spread(available);
+    }
+
+    boolean tryReserve(long quantity) {
+        if (!resetting) {
+            int stripes = cells.length();
+            int home = homeStripe();
+
+            for (int i = 0; i < stripes; i++) {
+                int index = (home + i) % stripes;
+                if (tryTake(cells, index, quantity)) {
+                    if (!resetting) {
+                        return true;
+                    }
+                    // A reset began after the take; hand the units back and decide once it is over
+                    cells.addAndGet(index, quantity);
+                    break;
+                }
+            }
+        }
+
+        // No single cell holds enough, or a reset is running: gather from several cells, serialized per
+        // product so two gatherers cannot keep handing each other's partial amounts back
+        lock.lock();
+        try {
+            return gather(quantity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long quantity) {
+        cells.addAndGet(homeStripe(), quantity);
+    }
+
+    /**
+     * Empties the cells and returns {@code available - what was taken}: the delta that sets the stock to
+     * {@code available}. The counter stays locked until {@link #endReset} on the same thread.
+     */
+    long beginReset(long available) {
+        if (available < 0) {
+            throw new IllegalArgumentException("Stock cannot be reset below zero");
+        }
+        lock.lock();
+        resetting = true;
+        target = available;
+        drained = takeUpTo(Long.MAX_VALUE);
+        return available - drained;
+    }
+
+    void endReset(boolean applied) {
+        try {
+            spread(applied ? target : drained);
+        } finally {
+            resetting = false;
+            lock.unlock();
+        }
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i < cells.length(); i++) {
+            total += cells.get(i);
+        }
+        return total;
+    }
+
+    private void spread(long quantity) {
+        int stripes = cells.length();
+        long share = quantity / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i, share);
+        }
+        cells.addAndGet(0, quantity - share * stripes);
+    }
+
+    private boolean gather(long quantity) {
+        long taken = takeUpTo(quantity);
+        if (taken == quantity) {
+            return true;
+        }
+
+        release(taken);
+        return false;
+    }
+
+    private long takeUpTo(long quantity) {
+        long taken = 0;
+        for (int i = 0; i < cells.length() && taken < quantity; i++) {
+            long current;
+            long share;
+            do {
+                current = cells.get(i);
+                share = Math.min(current, quantity - taken);
+                if (share <= 0) {
+                    break;
+                }
+            } while (!cells.compareAndSet(i, current, current - share));
+
+            if (share > 0) {
+                taken += share;
+            }
+        }
+        return taken;
+    }
+
+    private static boolean tryTake(AtomicLongArray cells, int index, long quantity) {
+        long current;
+        do {
+            current = cells.get(index);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!cells.compareAndSet(index, current, current - quantity));
+        return true;
+    }
+
+    private int homeStripe() {
+        return (int) (Thread.currentThread().threadId() % cells.length());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.enums.UserRole;
+import com.example.pedido_service.model.User;
+import com.example.pedido_service.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * What login needs to know about a user, cached by username so a repeat login does not touch the database.
+ * <p>
+ * Only existing users are cached; an unknown username is looked up again every time, so a user created after a
+ * failed lookup is found right away. Code that changes a user's password or roles must {@link #evict} it.
+ */
+@Component
+public class UserPrincipalCache implements MeterBinder {
+
+    private final LoadingCache<String, UserPrincipal> principals;
+
+    @Autowired
+    public UserPrincipalCache(UserRepository userRepository,
+                              @Value("${users.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${users.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(username -> userRepository.findByUsername(username).map(UserPrincipal::of).orElse(null));
+    }
+
+    public Optional<UserPrincipal> get(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(principals.get(username));
+    }
+
+    public void evict(String username) {
+        principals.invalidate(username);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, principals, "users");
+    }
+
+    /**
+     * An immutable view of a user; {@code passwordHash} is the stored BCrypt hash.
+     */
+    public record UserPrincipal(Long id, String username, String passwordHash, Set<UserRole> roles, long credentialsVersion) {
+
+        static UserPrincipal of(User user) {
+            Set<UserRole> roles = user.getRoles() == null ? Set.of() : Set.copyOf(user.getRoles());
+            return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), roles, user.getCredentialsVersion());
+        }
+
+        // The access token's scope claim
+        public String scope() {
+            return roles.stream().map(Enum::name).sorted().collect(Collectors.joining(" "));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.pedido_service.specification;
 
 import com.example.pedido_service.enums.OrderStatus;
 import com.example.pedido_service.model.Order;
+import com.example.pedido_service.pagination.OrderCursor;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -36,5 +37,22 @@ public class OrderSpecification {
             return null;
         };
     }
-}
 
+    public static Specification<Order> seekAfter(OrderCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null)
+                return null;
+            // The redundant upper bound lets the index scan start at the cursor instead of filtering newer rows
+            return cb.and(
+                    cb.lessThanOrEqualTo(root.get("dateCreated"), cursor.dateCreated()),
+                    cb.or(
+                            cb.lessThan(root.get("dateCreated"), cursor.dateCreated()),
+                            cb.and(
+                                    cb.equal(root.get("dateCreated"), cursor.dateCreated()),
+                                    cb.lessThan(root.get("id"), cursor.id())
+                            )
+                    )
+            );
+        };
+    }
+}
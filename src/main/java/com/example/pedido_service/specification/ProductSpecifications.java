@@ -4,6 +4,7 @@ import com.example.pedido_service.model.Product;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 
 public class ProductSpecifications {
 
@@ -12,6 +13,11 @@ public class ProductSpecifications {
                 description == null ? null : cb.like(cb.lower(root.get("description")), "%" + description.toLowerCase() + "%");
     }
 
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) ->
+                ids == null ? null : root.get("id").in(ids);
+    }
+
     public static Specification<Product> categoryEquals(String category) {
         return (root, query, cb) ->
                 category == null ? null : cb.equal(cb.lower(root.get("category")), category.toLowerCase());
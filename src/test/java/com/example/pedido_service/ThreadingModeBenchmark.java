@@ -0,0 +1,194 @@
+package com.example.pedido_service;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.dto.CreateProductDTO;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.service.OrderService;
+import com.example.pedido_service.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform-thread Tomcat against {@code spring.threads.virtual.enabled=true}, with 1024 concurrent clients.
+ * <p>
+ * The application runs in-process on H2; {@code dbLatencyMillis} is added to every statement and commit to stand in
+ * for the round trip to PostgreSQL, which is what platform threads spend their time blocked on. {@code catalog}
+ * never touches JDBC; {@code orderById} holds a connection for a few statements, so both modes end up limited by
+ * the 20-connection pool there. Throughput and the latency percentiles of SampleTime are the numbers to compare.
+ * The 1024 client threads share the JVM with the server, so run it on a machine with several cores: on one or two
+ * the clients take the CPU away from the virtual-thread carriers and the comparison measures the load generator.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ThreadingModeBenchmark -f 1 -wi 2 -i 3 -r 10s"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1024)
+public class ThreadingModeBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"5"})
+    private int dbLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest catalog;
+    private HttpRequest orderById;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command-line arguments, so they override application.properties
+        context = new SpringApplicationBuilder(PedidoServiceApplication.class, SlowDatabase.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--benchmark.db-latency-millis=" + dbLatencyMillis,
+                "--logging.level.root=WARN"
+        );
+
+        List<CreateOrderedItemDTO> items = List.of(
+                new CreateOrderedItemDTO(createProduct("Benchmark keyboard"), 1),
+                new CreateOrderedItemDTO(createProduct("Benchmark mouse"), 2)
+        );
+        Long orderId = context.getBean(OrderService.class)
+                .createOrder(new CreateOrderDTO(items, PaymentMethod.PIX, 0, BigDecimal.ZERO))
+                .getId();
+
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        String authorization = "Bearer " + adminToken();
+        catalog = HttpRequest.newBuilder(URI.create(base + "/products")).header("Authorization", authorization).build();
+        orderById = HttpRequest.newBuilder(URI.create(base + "/orders/" + orderId)).header("Authorization", authorization).build();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int catalog() throws IOException, InterruptedException {
+        return send(catalog);
+    }
+
+    @Benchmark
+    public int orderById() throws IOException, InterruptedException {
+        return send(orderById);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private Long createProduct(String description) {
+        return context.getBean(ProductService.class)
+                .createProduct(new CreateProductDTO(description, BigDecimal.TEN, "benchmark", 1_000))
+                .getId();
+    }
+
+    private String adminToken() {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("pedidos-service")
+                .subject("benchmark")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("scope", "ADMIN")
+                .build();
+        return context.getBean(JwtEncoder.class).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    /**
+     * Delays every statement and commit by {@code benchmark.db-latency-millis}. Unannotated, so it is only registered
+     * as a source of this benchmark's context and never picked up by component scanning.
+     */
+    static class SlowDatabase {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor(Environment environment) {
+            long latency = environment.getProperty("benchmark.db-latency-millis", Long.class, 0L);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && latency > 0) {
+                        return new DelegatingDataSource(dataSource) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return delayed(Connection.class, super.getConnection(), latency);
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T delayed(Class<T> type, T target, long latency) {
+            return (T) Proxy.newProxyInstance(SlowDatabase.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("execute") || name.equals("commit")) {
+                    Thread.sleep(latency);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                        return delayed(PreparedStatement.class, statement, latency);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
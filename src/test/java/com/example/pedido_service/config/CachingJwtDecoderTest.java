@@ -0,0 +1,75 @@
+package com.example.pedido_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+
+    @Test
+    void aVerifiedTokenIsDecodedOnceUntilItExpires() {
+        Jwt jwt = jwt("a.b.c", Instant.now().plusSeconds(600));
+        when(delegate.decode("a.b.c")).thenReturn(jwt);
+
+        assertThat(decoder.decode("a.b.c")).isSameAs(jwt);
+        assertThat(decoder.decode("a.b.c")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("a.b.c");
+    }
+
+    @Test
+    void anExpiredEntryGoesBackToTheDelegate() {
+        when(delegate.decode("a.b.c")).thenReturn(jwt("a.b.c", Instant.now().minusSeconds(1)));
+
+        decoder.decode("a.b.c");
+        decoder.decode("a.b.c");
+
+        verify(delegate, times(2)).decode("a.b.c");
+    }
+
+    @Test
+    void rejectedTokensAreNotCached() {
+        when(delegate.decode("a.b.c")).thenThrow(new BadJwtException("bad signature"));
+
+        assertThatThrownBy(() -> decoder.decode("a.b.c")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("a.b.c")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("a.b.c");
+    }
+
+    @Test
+    void hitsAndMissesAreExported() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        decoder.bindTo(meterRegistry);
+        when(delegate.decode("a.b.c")).thenReturn(jwt("a.b.c", Instant.now().plusSeconds(600)));
+
+        decoder.decode("a.b.c");
+        decoder.decode("a.b.c");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("1")
+                .issuedAt(expiresAt.minusSeconds(1800))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
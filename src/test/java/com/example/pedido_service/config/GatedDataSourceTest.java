@@ -0,0 +1,69 @@
+package com.example.pedido_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GatedDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+
+    private GatedDataSource gated;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+        gated = new GatedDataSource(pool, 2, Duration.ofMillis(50), meterRegistry);
+    }
+
+    @Test
+    void waitersBeyondThePermitsTimeOutUntilAConnectionIsClosed() throws SQLException {
+        Connection first = gated.getConnection();
+        gated.getConnection();
+
+        assertThatThrownBy(gated::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(available()).isZero();
+
+        first.close();
+        assertThat(available()).isEqualTo(1);
+        assertThat(gated.getConnection()).isNotNull();
+    }
+
+    @Test
+    void closingTwiceReturnsThePermitOnce() throws SQLException {
+        Connection first = gated.getConnection();
+
+        first.close();
+        first.close();
+
+        assertThat(available()).isEqualTo(2);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void failedCheckoutReturnsThePermit() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(gated::getConnection).hasMessage("pool exhausted");
+        assertThat(available()).isEqualTo(2);
+    }
+
+    private double available() {
+        return meterRegistry.get("jdbc.connections.gate.available").gauge().value();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.pedido_service.config;
+
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(IdSequenceConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceConfigTest {
+
+    @Autowired
+    private IdSequenceConfig idSequenceConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void sequenceMovesPastIdsAlreadyInTheTable() {
+        jdbcTemplate.update("insert into product (id, description, price, category, quantity_stock, disabled, version) " +
+                "values (5000, 'Legacy product', 1, 'category', 1, false, 0)");
+
+        idSequenceConfig.afterSingletonsInstantiated();
+
+        Long id = productRepository.save(new Product(null, "New product", BigDecimal.ONE, "category", 1, false, null)).getId();
+        assertThat(id).isGreaterThan(5000L);
+    }
+}
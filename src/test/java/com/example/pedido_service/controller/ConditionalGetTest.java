@@ -0,0 +1,163 @@
+package com.example.pedido_service.controller;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.dto.UpdateOrderDTO;
+import com.example.pedido_service.dto.UpdateProductDTO;
+import com.example.pedido_service.enums.OrderStatus;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.OrderRepository;
+import com.example.pedido_service.repository.ProductRepository;
+import com.example.pedido_service.service.OrderService;
+import com.example.pedido_service.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllers",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(new Product(null, "Caneca", new BigDecimal("25.00"), "cozinha", 100, false, null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void orderIsRevalidatedAgainstItsETag() throws Exception {
+        Long orderId = orderService.createOrder(new CreateOrderDTO(
+                List.of(new CreateOrderedItemDTO(product.getId(), 2)), PaymentMethod.PIX, 0, BigDecimal.ZERO)).getId();
+
+        String etag = fetch("/orders/" + orderId, null);
+
+        mockMvc.perform(authenticated(get("/orders/" + orderId)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        orderService.updateOrder(orderId, new UpdateOrderDTO(
+                List.of(new CreateOrderedItemDTO(product.getId(), 3)), OrderStatus.PENDING, 0, BigDecimal.ZERO));
+
+        String updated = fetch("/orders/" + orderId, etag);
+        assertThat(updated).isNotEqualTo(etag);
+    }
+
+    @Test
+    void orderETagChangesWhenAProductDescriptionItRendersChanges() throws Exception {
+        Long orderId = orderService.createOrder(new CreateOrderDTO(
+                List.of(new CreateOrderedItemDTO(product.getId(), 1)), PaymentMethod.PIX, 0, BigDecimal.ZERO)).getId();
+        String etag = fetch("/orders/" + orderId, null);
+
+        productService.updateProduct(product.getId(), update("Caneca grande", 100));
+
+        String updated = fetch("/orders/" + orderId, etag);
+        assertThat(updated).isNotEqualTo(etag);
+        mockMvc.perform(authenticated(get("/orders/" + orderId)).header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void orderETagChangesWhenTheNewDescriptionHasTheSameHashCode() throws Exception {
+        assertThat("Caneca Aa".hashCode()).isEqualTo("Caneca BB".hashCode());
+        productService.updateProduct(product.getId(), update("Caneca Aa", 100));
+        Long orderId = orderService.createOrder(new CreateOrderDTO(
+                List.of(new CreateOrderedItemDTO(product.getId(), 1)), PaymentMethod.PIX, 0, BigDecimal.ZERO)).getId();
+        String etag = fetch("/orders/" + orderId, null);
+
+        productService.updateProduct(product.getId(), update("Caneca BB", 100));
+
+        String updated = fetch("/orders/" + orderId, etag);
+        assertThat(updated).isNotEqualTo(etag);
+    }
+
+    @Test
+    void productIsRevalidatedAgainstItsETag() throws Exception {
+        String etag = fetch("/products/" + product.getId(), null);
+
+        mockMvc.perform(authenticated(get("/products/" + product.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        productService.updateProduct(product.getId(), update("Caneca azul", 90));
+
+        String updated = fetch("/products/" + product.getId(), etag);
+        assertThat(updated).isNotEqualTo(etag);
+    }
+
+    // A 200 with a strong ETag, whether or not a stale tag was sent
+    private String fetch(String path, String staleETag) throws Exception {
+        MockHttpServletRequestBuilder request = authenticated(get(path));
+        if (staleETag != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, staleETag);
+        }
+
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.id").exists())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").doesNotStartWith("W/");
+        return etag;
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN")));
+    }
+
+    private UpdateProductDTO update(String description, int quantityStock) {
+        UpdateProductDTO update = new UpdateProductDTO();
+        update.setDescription(description);
+        update.setPrice(product.getPrice());
+        update.setCategory(product.getCategory());
+        update.setQuantityStock(quantityStock);
+        return update;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.pedido_service.controller;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.OrderRepository;
+import com.example.pedido_service.repository.ProductRepository;
+import com.example.pedido_service.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllers",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class OrderControllerExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void exportWritesOneParseableOrderPerLine() throws Exception {
+        Product product = productRepository.save(new Product(null, "Export product", new BigDecimal("12.50"), "category", 100, false, null));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(orderService.createOrder(new CreateOrderDTO(
+                    List.of(new CreateOrderedItemDTO(product.getId(), i + 1)), PaymentMethod.PIX, 0, BigDecimal.ZERO)).getId());
+        }
+
+        MvcResult started = mockMvc.perform(get("/orders/export").with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The export's own timeout, not the application-wide async default
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).endsWith("\n");
+        List<Long> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            assertThat(line).doesNotStartWith(" ");
+            exported.add(objectMapper.readValue(line, OrderDTO.class).getId());
+        }
+        assertThat(exported).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void exportOfNoOrdersIsEmpty() throws Exception {
+        MvcResult started = mockMvc.perform(get("/orders/export").with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.pedido_service.monitoring;
+
+import com.example.pedido_service.dto.SqlStatementStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatisticsTest {
+
+    private final SqlStatistics sqlStatistics = new SqlStatistics();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sqlStatistics, "maxFingerprints", 3);
+        ReflectionTestUtils.setField(sqlStatistics, "slowThreshold", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(sqlStatistics, "slowLogInterval", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void fingerprintIgnoresLiteralsAndListLengths() {
+        assertThat(SqlFingerprint.of("select * from product p where p.id in (?, ?, ?) and p.description = 'x''y' limit 51"))
+                .isEqualTo(SqlFingerprint.of("select *\n  from product p where p.id in (?,?) and p.description = 'z' limit 10"))
+                .isEqualTo("select * from product p where p.id in (?...) and p.description = ? limit ?");
+        assertThat(SqlFingerprint.of("update product set quantity_stock=quantity_stock+case id when ? then ? when ? then ? else ? end"))
+                .isEqualTo(SqlFingerprint.of("update product set quantity_stock=quantity_stock+case id when ? then ? else ? end"));
+        assertThat(SqlFingerprint.of("select o1_0.id from orders o1_0")).isEqualTo("select o1_0.id from orders o1_0");
+    }
+
+    @Test
+    void ranksFingerprintsByP99() {
+        for (int i = 0; i < 100; i++) {
+            sqlStatistics.record("select * from orders where id = " + i, TimeUnit.MILLISECONDS.toNanos(1), List.of());
+            sqlStatistics.record("select * from product where id = ?", TimeUnit.MILLISECONDS.toNanos(i < 98 ? 1 : 50), List.of("Long"));
+        }
+
+        List<SqlStatementStatsDTO> top = sqlStatistics.top(10);
+
+        assertThat(top).extracting(SqlStatementStatsDTO::getFingerprint)
+                .containsExactly("select * from product where id = ?", "select * from orders where id = ?");
+        assertThat(top.get(0).getCount()).isEqualTo(100);
+        assertThat(top.get(0).getP99Millis()).isBetween(49.0, 51.0);
+        assertThat(top.get(0).getP50Millis()).isBetween(0.9, 1.1);
+    }
+
+    @Test
+    void boundsTheNumberOfFingerprints() {
+        for (int i = 0; i < 10; i++) {
+            sqlStatistics.record("select * from table_" + (char) ('a' + i), 1_000, List.of());
+        }
+
+        List<SqlStatementStatsDTO> top = sqlStatistics.top(10);
+
+        assertThat(top).hasSize(4);
+        assertThat(top).filteredOn(stats -> stats.getFingerprint().equals(SqlStatistics.OTHER))
+                .singleElement()
+                .extracting(SqlStatementStatsDTO::getCount)
+                .isEqualTo(7L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.pedido_service.monitoring;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbc.JdbcPreparedStatement;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SqlTimingDataSourceTest {
+
+    private final SqlStatistics sqlStatistics = mock(SqlStatistics.class);
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-timing;DB_CLOSE_DELAY=-1");
+        connection = new SqlTimingDataSource(h2, sqlStatistics).getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id bigint primary key, name varchar(50))");
+            statement.execute("create alias if not exists pause as 'void pause(long millis) throws Exception { Thread.sleep(millis); }'");
+        }
+        clearInvocations(sqlStatistics);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table item");
+        }
+        connection.close();
+    }
+
+    @Test
+    void timesEachExecution() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("call pause(50)");
+        }
+
+        ArgumentCaptor<Long> nanos = ArgumentCaptor.forClass(Long.class);
+        verify(sqlStatistics).record(eq("call pause(50)"), nanos.capture(), eq(List.of()));
+        assertThat(nanos.getValue()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void recordsParameterShapesOfPreparedStatements() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("insert into item (id, name) values (?, ?)")) {
+            statement.setLong(1, 1);
+            statement.setString(2, "first");
+            statement.executeUpdate();
+
+            statement.setObject(1, 2L);
+            statement.setNull(2, Types.VARCHAR);
+            statement.executeUpdate();
+        }
+
+        verify(sqlStatistics).record(eq("insert into item (id, name) values (?, ?)"), anyLong(), eq(List.of("Long", "String")));
+        verify(sqlStatistics).record(eq("insert into item (id, name) values (?, ?)"), anyLong(), eq(List.of("Long", "null")));
+    }
+
+    @Test
+    void recordsPreparedBatchesOnce() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("insert into item (id, name) values (?, ?)")) {
+            for (long id = 1; id <= 3; id++) {
+                statement.setLong(1, id);
+                statement.setString(2, "item " + id);
+                statement.addBatch();
+            }
+            assertThat(statement.executeBatch()).containsExactly(1, 1, 1);
+        }
+
+        verify(sqlStatistics, times(1)).record(eq("insert into item (id, name) values (?, ?)"), anyLong(), eq(List.of("Long", "String")));
+    }
+
+    @Test
+    void recordsEveryStatementOfAPlainBatch() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.addBatch("insert into item (id, name) values (1, 'a')");
+            statement.addBatch("update item set name = 'b' where id = 1");
+            statement.executeBatch();
+
+            statement.addBatch("delete from item");
+            statement.clearBatch();
+            statement.executeBatch();
+        }
+
+        verify(sqlStatistics).record(eq("insert into item (id, name) values (1, 'a')"), anyLong(), eq(List.of()));
+        verify(sqlStatistics).record(eq("update item set name = 'b' where id = 1"), anyLong(), eq(List.of()));
+        verify(sqlStatistics, never()).record(eq("delete from item"), anyLong(), anyList());
+    }
+
+    @Test
+    void failedExecutionsAreStillTimed() {
+        assertThatThrownBy(() -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("select * from missing_table");
+            }
+        }).isInstanceOf(SQLException.class);
+
+        verify(sqlStatistics).record(eq("select * from missing_table"), anyLong(), eq(List.of()));
+    }
+
+    @Test
+    void unwrapReachesTheDriverObjects() throws SQLException {
+        assertThat(connection.isWrapperFor(JdbcConnection.class)).isTrue();
+        assertThat(connection.unwrap(JdbcConnection.class)).isInstanceOf(JdbcConnection.class);
+
+        try (PreparedStatement statement = connection.prepareStatement("select count(*) from item")) {
+            assertThat(statement.unwrap(JdbcPreparedStatement.class)).isInstanceOf(JdbcPreparedStatement.class);
+        }
+        verify(sqlStatistics, never()).record(anyString(), anyLong(), anyList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.pedido_service.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementBudgetInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(meterRegistry);
+    private final CountingStatementInspector inspector = new CountingStatementInspector();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestStatements.end();
+    }
+
+    @Test
+    void recordsStatementsPerHandler() throws Exception {
+        configure(5, false);
+        HandlerMethod handler = handler("search");
+
+        interceptor.preHandle(request, response, handler);
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(meterRegistry.get("http.server.requests.statements").tag("handler", "SampleController.search").summary().totalAmount())
+                .isEqualTo(2);
+        assertThat(meterRegistry.find("http.server.requests.statements.over.budget").counter()).isNull();
+        assertThat(RequestStatements.current()).isNull();
+    }
+
+    @Test
+    void countsRequestsOverBudget() throws Exception {
+        configure(1, false);
+        HandlerMethod handler = handler("search");
+
+        interceptor.preHandle(request, response, handler);
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(meterRegistry.get("http.server.requests.statements.over.budget").tag("handler", "SampleController.search").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void annotatedBudgetOverridesDefault() throws Exception {
+        configure(1, true);
+        HandlerMethod handler = handler("bulk");
+
+        interceptor.preHandle(request, response, handler);
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+
+        assertThat(RequestStatements.current().isOverBudget()).isFalse();
+    }
+
+    @Test
+    void failsAtTheStatementThatCrossesTheBudget() throws Exception {
+        configure(1, true);
+        interceptor.preHandle(request, response, handler("search"));
+        inspector.inspect("select 1");
+
+        assertThatThrownBy(() -> inspector.inspect("select 2"))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("SampleController.search");
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        assertThat(inspector.inspect("select 1")).isEqualTo("select 1");
+    }
+
+    private void configure(int defaultBudget, boolean failOnExceed) {
+        ReflectionTestUtils.setField(interceptor, "defaultBudget", defaultBudget);
+        ReflectionTestUtils.setField(interceptor, "failOnExceed", failOnExceed);
+    }
+
+    private HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new SampleController(), SampleController.class.getMethod(method));
+    }
+
+    static class SampleController {
+        public void search() {
+        }
+
+        @StatementBudget(10)
+        public void bulk() {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.enums.OrderStatus;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Order;
+import com.example.pedido_service.model.OrderedItem;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory catalog and service wiring for the JMH benchmarks, so they measure the CPU path without a database.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            products.add(new Product(id, "Product " + id, BigDecimal.valueOf(id * 137, 2), "category-" + (id % 7), 1_000_000, false, 0L));
+        }
+        return products;
+    }
+
+    static CreateOrderDTO createOrderDTO(List<Product> products) {
+        List<CreateOrderedItemDTO> items = products.stream()
+                .map(product -> new CreateOrderedItemDTO(product.getId(), (int) (product.getId() % 5) + 1))
+                .toList();
+        return new CreateOrderDTO(items, PaymentMethod.PIX, 7, new BigDecimal("19.90"));
+    }
+
+    static Order order(long id, List<Product> products) {
+        Order order = new Order();
+        order.setId(id);
+        order.setDateCreated(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(id));
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        order.setDiscount(7);
+        order.setShippingFee(new BigDecimal("19.90"));
+
+        List<OrderedItem> items = new ArrayList<>(products.size());
+        for (Product product : products) {
+            items.add(new OrderedItem(id * 1000 + product.getId(), order, product, (int) (product.getId() % 5) + 1, product.getPrice()));
+        }
+        order.setProducts(items);
+        order.setTotalPrice(new BigDecimal("1234.56"));
+        return order;
+    }
+
+    static OrderService orderService(List<Product> products) {
+        ProductRepository productRepository = new InMemoryProductRepository(products);
+        ProductCache productCache = new ProductCache(productRepository, 100_000, Duration.ofHours(1));
+        StockLedger stockLedger = new StockLedger(productRepository, null, productCache, null);
+        return new OrderService(null, productRepository, stockLedger, productCache, null, new SimpleMeterRegistry());
+    }
+
+    static ProductService productService(List<Product> products) {
+        ProductRepository productRepository = new InMemoryProductRepository(products);
+        ProductCache productCache = new ProductCache(productRepository, 100_000, Duration.ofHours(1));
+        return new ProductService(productRepository, null, productCache, new ProductSearchIndex(productRepository), null);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.pedido_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs every benchmark once, so a fixture that no longer covers the benchmarked code fails the build, not a JMH run
+class BenchmarkFixturesTest {
+
+    @Test
+    void orderServiceBenchmarkRunsAgainstTheFixtures() {
+        OrderServiceBenchmark benchmark = new OrderServiceBenchmark();
+        ReflectionTestUtils.setField(benchmark, "items", 10);
+        benchmark.setUp();
+
+        assertThat(benchmark.convertToEntity().getProducts()).hasSize(10);
+        assertThat(benchmark.convertToDto().getProducts()).hasSize(10);
+        assertThat(benchmark.calculateTotalPrice()).isPositive();
+    }
+
+    @Test
+    void orderSerializationBenchmarkRunsAgainstTheFixtures() throws Exception {
+        OrderSerializationBenchmark benchmark = new OrderSerializationBenchmark();
+        ReflectionTestUtils.setField(benchmark, "orders", 5);
+        ReflectionTestUtils.setField(benchmark, "items", 3);
+        benchmark.setUp();
+
+        assertThat(benchmark.serializeOrderList()).isNotEmpty();
+    }
+
+    @Test
+    void productServiceBenchmarkRunsAgainstTheFixtures() {
+        ProductServiceBenchmark benchmark = new ProductServiceBenchmark();
+        benchmark.setUp();
+
+        assertThat(benchmark.convertToDto().getId()).isEqualTo(1L);
+    }
+}
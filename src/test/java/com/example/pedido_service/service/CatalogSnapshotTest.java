@@ -0,0 +1,151 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.CreateProductDTO;
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.dto.UpdateProductDTO;
+import com.example.pedido_service.repository.ProductRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductService.class, StockLedger.class, ProductCache.class, ProductSearchIndex.class, CatalogSnapshot.class,
+        CatalogSnapshotTest.SyncExecutorConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogSnapshotTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void snapshotHoldsTheSerializedCatalogAndItsGzipVariant() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            productService.createProduct(new CreateProductDTO("Product " + i, BigDecimal.valueOf(10 + i), "catalog", i));
+        }
+
+        CatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+
+        assertThat(snapshot.json()).isEqualTo(objectMapper.writeValueAsBytes(productCache.getCatalog()));
+        assertThat(gunzip(snapshot.gzip())).isEqualTo(snapshot.json());
+        assertThat(snapshot.gzip().length).isLessThan(snapshot.json().length);
+        assertThat(read(snapshot.json())).hasSize(50);
+    }
+
+    @Test
+    void productWritesSwapInANewSnapshot() throws IOException {
+        ProductDTO created = productService.createProduct(new CreateProductDTO("Keyboard", BigDecimal.TEN, "peripherals", 5));
+        CatalogSnapshot.Snapshot before = catalogSnapshot.current();
+
+        UpdateProductDTO update = new UpdateProductDTO(false);
+        update.setDescription("Mechanical keyboard");
+        update.setPrice(BigDecimal.TEN);
+        update.setCategory("peripherals");
+        update.setQuantityStock(5);
+        productService.updateProduct(created.getId(), update);
+
+        CatalogSnapshot.Snapshot afterUpdate = catalogSnapshot.current();
+        assertThat(afterUpdate).isNotSameAs(before);
+        assertThat(afterUpdate.etag()).isNotEqualTo(before.etag());
+        assertThat(read(afterUpdate.json())).singleElement()
+                .satisfies(product -> assertThat(product.getDescription()).isEqualTo("Mechanical keyboard"));
+
+        productService.deleteProductById(created.getId());
+
+        assertThat(read(catalogSnapshot.current().json())).singleElement()
+                .satisfies(product -> assertThat(product.isDisabled()).isTrue());
+    }
+
+    @Test
+    void stockChangesAreRefreshedByTheScheduledCheck() throws IOException {
+        ProductDTO created = productService.createProduct(new CreateProductDTO("Mouse", BigDecimal.ONE, "peripherals", 10));
+        CatalogSnapshot.Snapshot before = catalogSnapshot.current();
+
+        catalogSnapshot.refreshIfStale();
+        assertThat(catalogSnapshot.current()).isSameAs(before);
+
+        // Orders reserve stock without touching the snapshot; the eviction they leave behind is what marks it stale
+        transactionTemplate.executeWithoutResult(status -> stockLedger.reserve(created.getId(), 3));
+        assertThat(catalogSnapshot.current()).isSameAs(before);
+
+        catalogSnapshot.refreshIfStale();
+
+        assertThat(read(catalogSnapshot.current().json())).singleElement()
+                .satisfies(product -> assertThat(product.getQuantityStock()).isEqualTo(7));
+    }
+
+    private List<ProductDTO> read(byte[] json) throws IOException {
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return input.readAllBytes();
+        }
+    }
+
+    // Rebuilds run on the caller's thread, so every assertion sees the swap that the write triggered. Left
+    // unannotated so that component scanning of a full application context never picks it up
+    static class SyncExecutorConfig {
+
+        @Bean
+        TaskExecutor applicationTaskExecutor() {
+            return new SyncTaskExecutor();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.ProductRepository;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Map-backed {@link ProductRepository} for the JMH benchmarks. Implementing the interface directly means a new
+ * repository method breaks the build here rather than a benchmark run. Stock updates report success without
+ * touching the stored quantity, so repeated invocations measure the same work; queries that need a database
+ * (specifications, examples, paging) are rejected.
+ */
+class InMemoryProductRepository implements ProductRepository {
+
+    private final Map<Long, Product> products = new TreeMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    InMemoryProductRepository(List<Product> products) {
+        products.forEach(this::save);
+    }
+
+    @Override
+    public Optional<Product> findByDescription(String name) {
+        return products.values().stream().filter(product -> product.getDescription().equals(name)).findFirst();
+    }
+
+    @Override
+    public List<Long> findAllIds() {
+        return new ArrayList<>(products.keySet());
+    }
+
+    @Override
+    public List<Object[]> findAllDescriptions() {
+        return products.values().stream().map(product -> new Object[]{product.getId(), product.getDescription()}).toList();
+    }
+
+    @Override
+    public List<ProductDTO> findCurrentByIdIn(Collection<Long> ids) {
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(product -> new ProductDTO(product.getId(), product.getDescription(), product.getPrice(),
+                        product.getCategory(), product.getQuantityStock(), product.isDisabled(), product.getVersion()))
+                .toList();
+    }
+
+    @Override
+    public List<Product> findAllByIdInOrderByIdAsc(Collection<Long> ids) {
+        return products.values().stream().filter(product -> ids.contains(product.getId())).toList();
+    }
+
+    @Override
+    public int decrementStock(Long id, int quantity) {
+        return products.containsKey(id) ? 1 : 0;
+    }
+
+    @Override
+    public int incrementStock(Long id, int quantity) {
+        return products.containsKey(id) ? 1 : 0;
+    }
+
+    @Override
+    public int incrementStock(Map<Long, Integer> quantities) {
+        return (int) quantities.keySet().stream().filter(products::containsKey).count();
+    }
+
+    @Override
+    public List<ProductDTO> findAllAsDto(Specification<Product> spec) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public <S extends Product> S save(S product) {
+        if (product.getId() == null) {
+            product.setId(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(product.getId(), Math::max);
+        }
+        products.put(product.getId(), product);
+        return product;
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return products.containsKey(id);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return new ArrayList<>(products.values());
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<Long> ids) {
+        List<Product> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return products.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        products.remove(id);
+    }
+
+    @Override
+    public void delete(Product product) {
+        products.remove(product.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(products::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        products.clear();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public <S extends Product> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Product> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public Product getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Product getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Product getReferenceById(Long id) {
+        return products.get(id);
+    }
+
+    @Override
+    public List<Product> findAll(Sort sort) {
+        throw new UnsupportedOperationException("Sorting needs a database");
+    }
+
+    @Override
+    public Page<Product> findAll(Pageable pageable) {
+        throw new UnsupportedOperationException("Paging needs a database");
+    }
+
+    @Override
+    public <S extends Product> Optional<S> findOne(Example<S> example) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example, Sort sort) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public <S extends Product> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public <S extends Product> long count(Example<S> example) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public <S extends Product> boolean exists(Example<S> example) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public <S extends Product, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw new UnsupportedOperationException("Examples need a database");
+    }
+
+    @Override
+    public Optional<Product> findOne(Specification<Product> spec) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public List<Product> findAll(Specification<Product> spec) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public Page<Product> findAll(Specification<Product> spec, Pageable pageable) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public List<Product> findAll(Specification<Product> spec, Sort sort) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public long count(Specification<Product> spec) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public boolean exists(Specification<Product> spec) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public long delete(Specification<Product> spec) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+
+    @Override
+    public <S extends Product, R> R findBy(Specification<Product> spec, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw new UnsupportedOperationException("Specifications need a database");
+    }
+}
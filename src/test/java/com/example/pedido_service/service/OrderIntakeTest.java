@@ -0,0 +1,171 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.dto.OrderIntakeStatusDTO;
+import com.example.pedido_service.enums.IntakeStatus;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.OrderRepository;
+import com.example.pedido_service.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({OrderIntake.class, OrderService.class, StockLedger.class, ProductCache.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+        "orders.intake.async.enabled=true",
+        "orders.intake.queue-capacity=100",
+        "orders.intake.batch-size=50"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIntakeTest {
+
+    @Autowired
+    private OrderIntake orderIntake;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // The context starts the worker on ApplicationReadyEvent; each test decides when the queue is drained
+    @BeforeEach
+    void stopWorker() throws InterruptedException {
+        orderIntake.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // Drain whatever a test left queued before the rows are removed
+        orderIntake.start();
+        orderIntake.shutdown();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void queuedOrdersAreCommittedInBatches() throws InterruptedException {
+        Long productId = saveProduct("Batch SKU", 100);
+        DistributionSummary batchSizes = meterRegistry.get("orders.intake.batch.size").summary();
+        long batchesBefore = batchSizes.count();
+        double ordersBefore = batchSizes.totalAmount();
+
+        List<String> handles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            handles.add(orderIntake.submit(order(productId, 1)).getHandle());
+        }
+        assertThat(orderIntake.findStatus(handles.get(0)).getStatus()).isEqualTo(IntakeStatus.QUEUED);
+
+        orderIntake.start();
+        orderIntake.shutdown();
+
+        assertThat(handles).allSatisfy(handle -> {
+            OrderIntakeStatusDTO status = orderIntake.findStatus(handle);
+            assertThat(status.getStatus()).isEqualTo(IntakeStatus.CREATED);
+            assertThat(status.getOrder().getId()).isNotNull();
+        });
+        assertThat(orderRepository.count()).isEqualTo(100);
+        assertThat(productRepository.findById(productId).orElseThrow().getQuantityStock()).isZero();
+
+        // The queue was full when the worker started, so 100 orders went through in batch-size transactions
+        assertThat(batchSizes.count() - batchesBefore).isEqualTo(2);
+        assertThat(batchSizes.totalAmount() - ordersBefore).isEqualTo(100);
+    }
+
+    @Test
+    void ordersWithoutStockAreRejectedWithoutFailingTheirBatch() throws InterruptedException {
+        Long productId = saveProduct("Scarce SKU", 1);
+
+        String first = orderIntake.submit(order(productId, 1)).getHandle();
+        String second = orderIntake.submit(order(productId, 1)).getHandle();
+
+        orderIntake.start();
+        orderIntake.shutdown();
+
+        assertThat(orderIntake.findStatus(first).getStatus()).isEqualTo(IntakeStatus.CREATED);
+        OrderIntakeStatusDTO rejected = orderIntake.findStatus(second);
+        assertThat(rejected.getStatus()).isEqualTo(IntakeStatus.REJECTED);
+        assertThat(rejected.getError()).startsWith("Insufficient stock");
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueIsRejectedInsteadOfBlocking() {
+        Long productId = saveProduct("Popular SKU", 1_000);
+
+        for (int i = 0; i < 100; i++) {
+            orderIntake.submit(order(productId, 1));
+        }
+
+        assertThatThrownBy(() -> orderIntake.submit(order(productId, 1)))
+                .isInstanceOf(OrderIntakeFullException.class);
+    }
+
+    @Test
+    void unknownProductsAreRejectedBeforeQueueing() {
+        assertThatThrownBy(() -> orderIntake.submit(order(Long.MAX_VALUE, 1)))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> orderIntake.findStatus("missing"))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void batchSizeAboveTheBatchMaximumFailsAtStartup() {
+        assertThatThrownBy(() -> new OrderIntake(mock(OrderService.class), new SimpleMeterRegistry(), 100, 1001, 1000, 100, Duration.ofHours(1)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("orders.batch.max-size");
+    }
+
+    @Test
+    void queuedHandlesOutliveAStatusCacheSmallerThanTheQueue() {
+        OrderIntake intake = new OrderIntake(mock(OrderService.class), new SimpleMeterRegistry(), 100, 50, 1000, 1, Duration.ofHours(1));
+
+        List<String> handles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            handles.add(intake.submit(order(1L, 1)).getHandle());
+        }
+
+        assertThat(handles).allSatisfy(handle ->
+                assertThat(intake.findStatus(handle).getStatus()).isEqualTo(IntakeStatus.QUEUED));
+    }
+
+    private Long saveProduct(String description, int stock) {
+        Product product = new Product();
+        product.setDescription(description);
+        product.setPrice(BigDecimal.TEN);
+        product.setCategory("intake");
+        product.setQuantityStock(stock);
+        return productRepository.save(product).getId();
+    }
+
+    private static CreateOrderDTO order(Long productId, int quantity) {
+        return new CreateOrderDTO(List.of(new CreateOrderedItemDTO(productId, quantity)), PaymentMethod.PIX, 0, BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderSerializationBenchmark {
+
+    @Param({"50", "500"})
+    private int orders;
+
+    @Param({"3", "20"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private List<OrderDTO> orderDTOs;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Product> products = BenchmarkFixtures.products(items);
+        OrderService orderService = BenchmarkFixtures.orderService(products);
+
+        orderDTOs = new ArrayList<>(orders);
+        for (long id = 1; id <= orders; id++) {
+            orderDTOs.add(orderService.convertToDto(BenchmarkFixtures.order(id, products)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeOrderList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderDTOs);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.model.Order;
+import com.example.pedido_service.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "10", "200"})
+    private int items;
+
+    private OrderService orderService;
+    private CreateOrderDTO createOrderDTO;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = BenchmarkFixtures.products(items);
+        orderService = BenchmarkFixtures.orderService(products);
+        createOrderDTO = BenchmarkFixtures.createOrderDTO(products);
+        order = BenchmarkFixtures.order(1, products);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalPrice() {
+        return orderService.calculateTotalPrice(order.getProducts(), order.getDiscount(), order.getShippingFee());
+    }
+
+    @Benchmark
+    public Order convertToEntity() {
+        return orderService.convertToEntity(createOrderDTO);
+    }
+
+    @Benchmark
+    public OrderDTO convertToDto() {
+        return orderService.convertToDto(order);
+    }
+}
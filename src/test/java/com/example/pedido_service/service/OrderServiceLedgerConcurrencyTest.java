@@ -0,0 +1,135 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.BatchOrderResultDTO;
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {"stock.ledger.enabled=true", "stock.ledger.stripes=8"})
+class OrderServiceLedgerConcurrencyTest extends OrderServiceStockConcurrencyTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void resettingStockDownUnderLoadNeverOversells() throws Exception {
+        Product product = new Product();
+        product.setDescription("Reset SKU");
+        product.setPrice(BigDecimal.TEN);
+        product.setCategory("flash-sale");
+        product.setQuantityStock(1_000);
+        Long productId = productRepository.save(product).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    order(productId);
+                } catch (RuntimeException e) {
+                    // Out of stock once the reset lands
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int level = 20; level >= 0; level -= 5) {
+            int target = level;
+            transactionTemplate.executeWithoutResult(status -> stockLedger.resetAvailable(productId, target));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        stockLedger.flush();
+
+        // Whatever the database ends up with is exactly what is still reservable
+        int finalStock = productRepository.findById(productId).orElseThrow().getQuantityStock();
+        assertThat(finalStock).isNotNegative();
+        int reservable = 0;
+        while (reservable <= finalStock) {
+            try {
+                order(productId);
+                reservable++;
+            } catch (RuntimeException e) {
+                break;
+            }
+        }
+        assertThat(reservable).isEqualTo(finalStock);
+    }
+
+    @Test
+    void batchOrdersDoNotWaitForProductRowLocks() throws Exception {
+        Product product = new Product();
+        product.setDescription("Locked SKU");
+        product.setPrice(BigDecimal.TEN);
+        product.setCategory("flash-sale");
+        product.setQuantityStock(10);
+        Long productId = productRepository.save(product).getId();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productRepository.findAllByIdInOrderByIdAsc(List.of(productId));
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try {
+            assertThat(locked.await(30, TimeUnit.SECONDS)).isTrue();
+            List<BatchOrderResultDTO> results = orderService.createOrders(List.of(new CreateOrderDTO(
+                    List.of(new CreateOrderedItemDTO(productId, 1)), PaymentMethod.PIX, 0, BigDecimal.ZERO)));
+
+            assertThat(results).allMatch(BatchOrderResultDTO::isCreated);
+        } finally {
+            release.countDown();
+            holder.get(30, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+    }
+
+    private void order(Long productId) {
+        orderService.createOrder(new CreateOrderDTO(
+                List.of(new CreateOrderedItemDTO(productId, 1)),
+                PaymentMethod.PIX,
+                0,
+                BigDecimal.ZERO
+        ));
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.BatchOrderResultDTO;
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.dto.CursorPageDTO;
+import com.example.pedido_service.dto.OrderDTO;
+import com.example.pedido_service.dto.UpdateOrderDTO;
+import com.example.pedido_service.enums.OrderStatus;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Order;
+import com.example.pedido_service.model.OrderedItem;
+import com.example.pedido_service.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({OrderService.class, StockLedger.class, ProductCache.class, SimpleMeterRegistry.class})
+class OrderServiceQueryCountTest {
+
+    private static final int ORDERS = 500;
+    private static final int LINES = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Long lastOrderId;
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setDescription("Product " + i);
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setCategory("category");
+            product.setQuantityStock(1000);
+            entityManager.persist(product);
+            products.add(product);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setDateCreated(now.minusMinutes(i));
+            order.setStatus(OrderStatus.PENDING);
+            order.setPaymentMethod(PaymentMethod.PIX);
+            order.setDiscount(0);
+            order.setShippingFee(BigDecimal.ZERO);
+            order.setTotalPrice(BigDecimal.TEN);
+            order.setProducts(List.of(
+                    item(order, products.get(i % 20)),
+                    item(order, products.get((i + 7) % 20))
+            ));
+            entityManager.persist(order);
+            lastOrderId = order.getId();
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllOrdersUsesBoundedStatementsForLargePage() {
+        CursorPageDTO<OrderDTO> page = orderService.findAllOrders(null, ORDERS);
+
+        assertThat(page.getContent()).hasSize(ORDERS);
+        assertThat(page.getContent()).allSatisfy(order -> assertThat(order.getProducts()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findFilteredOrdersUsesBoundedStatementsForLargePage() {
+        CursorPageDTO<OrderDTO> page = orderService.findFilteredOrders(OrderStatus.PENDING, null, null, null, null, null, ORDERS);
+
+        assertThat(page.getContent()).hasSize(ORDERS);
+        assertThat(page.getContent()).allSatisfy(order -> assertThat(order.getProducts())
+                .extracting("productDescription").doesNotContainNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findOrderByIdUsesSingleStatement() {
+        OrderDTO order = orderService.findOrderById(lastOrderId);
+
+        assertThat(order.getProducts()).extracting("productDescription").doesNotContainNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findOrderRevisionReadsOnlyVersionAndDescriptions() {
+        assertThat(orderService.findOrderRevision(lastOrderId)).isEqualTo(orderService.revisionOf(orderService.findOrderById(lastOrderId)));
+        statistics.clear();
+
+        assertThat(orderService.findOrderRevision(lastOrderId)).startsWith("0-");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void updateOrderWritesOnlyTheChangedLine() {
+        Long orderId = persistOrderWithProducts();
+        List<CreateOrderedItemDTO> items = requestedItems();
+        items.get(42).setQuantity(3);
+
+        orderService.updateOrder(orderId, new UpdateOrderDTO(items, OrderStatus.PENDING, 0, BigDecimal.ZERO));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        // The changed item and the order's new total
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2);
+        // Order with items, catalog lookup, one stock decrement and the two updates
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(stockOf(products.get(42))).isEqualTo(998);
+        assertThat(stockOf(products.get(41))).isEqualTo(1000);
+    }
+
+    @Test
+    void updateOrderInsertsAndDeletesOnlyReplacedLines() {
+        Long orderId = persistOrderWithProducts();
+        List<CreateOrderedItemDTO> items = requestedItems();
+        items.remove(0);
+        items.add(new CreateOrderedItemDTO(products.get(LINES - 1).getId(), 1));
+
+        orderService.updateOrder(orderId, new UpdateOrderDTO(items, OrderStatus.PENDING, 0, BigDecimal.ZERO));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        // Stock moves only by the net difference of each product
+        assertThat(stockOf(products.get(0))).isEqualTo(1001);
+        assertThat(stockOf(products.get(1))).isEqualTo(1000);
+        assertThat(stockOf(products.get(LINES - 1))).isEqualTo(999);
+    }
+
+    @Test
+    void cancelOrderRestoresStockWithSingleStatement() {
+        Long orderId = persistOrderWithProducts();
+
+        orderService.cancelOrderById(orderId);
+        entityManager.flush();
+
+        // Order with items, the row locks in id order, one set-based stock increment and the status update
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(stockOf(products.get(0))).isEqualTo(1001);
+        assertThat(stockOf(products.get(LINES - 2))).isEqualTo(1001);
+        assertThat(stockOf(products.get(LINES - 1))).isEqualTo(1000);
+    }
+
+    @Test
+    void cancelOrdersAggregatesStockAcrossOrders() {
+        List<Long> orderIds = List.of(persistOrderWithProducts(), persistOrderWithProducts(), persistOrderWithProducts());
+
+        List<OrderDTO> cancelled = orderService.cancelOrders(orderIds);
+        entityManager.flush();
+
+        assertThat(cancelled).extracting("status").containsOnly(OrderStatus.CANCELLED);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(3);
+        // Orders with items, the row locks in id order and one set-based stock increment; the status updates are batched
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(stockOf(products.get(0))).isEqualTo(1003);
+    }
+
+    @Test
+    void cancelOrdersRejectsWholeBatchWhenAnyOrderIsNotPending() {
+        Long pendingId = persistOrderWithProducts();
+        Long cancelledId = persistOrderWithProducts();
+        orderService.cancelOrderById(cancelledId);
+
+        assertThatThrownBy(() -> orderService.cancelOrders(List.of(pendingId, cancelledId)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(orderService.findOrderById(pendingId).getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void createOrdersBatchesInsertsAndReportsFailuresByIndex() {
+        List<CreateOrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Long productId = i == 4 ? Long.MAX_VALUE : products.get(i).getId();
+            orders.add(new CreateOrderDTO(List.of(new CreateOrderedItemDTO(productId, 1)), PaymentMethod.PIX, 0, BigDecimal.ZERO));
+        }
+
+        List<BatchOrderResultDTO> results = orderService.createOrders(orders);
+        entityManager.flush();
+
+        assertThat(results).extracting(BatchOrderResultDTO::getIndex).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(results).filteredOn(result -> !result.isCreated())
+                .singleElement()
+                .satisfies(result -> {
+                    assertThat(result.getIndex()).isEqualTo(4);
+                    assertThat(result.getError()).contains(String.valueOf(Long.MAX_VALUE));
+                });
+        // Nine orders and nine items
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(18);
+        // Product locks, current rows, nine stock decrements, at most one fetch per id sequence and one insert
+        // batch per table; unbatched, the inserts alone would be 18
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(15);
+    }
+
+    @Test
+    void createOrderTakesPriceFromTheDatabaseNotTheCache() {
+        Product product = products.get(0);
+        productCache.getAll(List.of(product.getId()));
+        entityManager.createQuery("update Product p set p.price = :price where p.id = :id")
+                .setParameter("price", new BigDecimal("99.00"))
+                .setParameter("id", product.getId())
+                .executeUpdate();
+
+        OrderDTO order = orderService.createOrder(new CreateOrderDTO(
+                List.of(new CreateOrderedItemDTO(product.getId(), 2)), PaymentMethod.PIX, 0, BigDecimal.ZERO));
+
+        assertThat(productCache.get(product.getId()).getPrice()).isEqualByComparingTo("10");
+        assertThat(order.getProducts().get(0).getProductPrice()).isEqualByComparingTo("99.00");
+        assertThat(order.getTotalPrice()).isEqualByComparingTo("198.00");
+    }
+
+    @Test
+    void createOrderRejectsProductDisabledAfterItWasCached() {
+        Product product = products.get(0);
+        productCache.getAll(List.of(product.getId()));
+        entityManager.createQuery("update Product p set p.disabled = true where p.id = :id")
+                .setParameter("id", product.getId())
+                .executeUpdate();
+
+        assertThatThrownBy(() -> orderService.createOrder(new CreateOrderDTO(
+                List.of(new CreateOrderedItemDTO(product.getId(), 1)), PaymentMethod.PIX, 0, BigDecimal.ZERO)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(stockOf(product)).isEqualTo(1000);
+    }
+
+    @Test
+    void productCacheHandsOutCopies() {
+        Long id = products.get(0).getId();
+        productCache.get(id).setPrice(BigDecimal.ONE);
+        productCache.getAll(List.of(id)).get(id).setDisabled(true);
+
+        assertThat(productCache.get(id).getPrice()).isEqualByComparingTo("10");
+        assertThat(productCache.get(id).isDisabled()).isFalse();
+    }
+
+    private Long persistOrderWithProducts() {
+        Order order = new Order();
+        order.setDateCreated(LocalDateTime.now());
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentMethod(PaymentMethod.PIX);
+        order.setDiscount(0);
+        order.setShippingFee(BigDecimal.ZERO);
+        order.setTotalPrice(BigDecimal.TEN);
+        order.setProducts(new ArrayList<>());
+        // Every product but the last one, which stays free to be added
+        products.subList(0, LINES - 1).forEach(product -> order.getProducts().add(item(order, product)));
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        return order.getId();
+    }
+
+    private List<CreateOrderedItemDTO> requestedItems() {
+        List<CreateOrderedItemDTO> items = new ArrayList<>();
+        products.subList(0, LINES - 1).forEach(product -> items.add(new CreateOrderedItemDTO(product.getId(), 1)));
+        return items;
+    }
+
+    private int stockOf(Product product) {
+        entityManager.clear();
+        return entityManager.find(Product.class, product.getId()).getQuantityStock();
+    }
+
+    private OrderedItem item(Order order, Product product) {
+        OrderedItem item = new OrderedItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitaryPrice(product.getPrice());
+        return item;
+    }
+}
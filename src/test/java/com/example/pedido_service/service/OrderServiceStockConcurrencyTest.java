@@ -0,0 +1,106 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.CreateOrderDTO;
+import com.example.pedido_service.dto.CreateOrderedItemDTO;
+import com.example.pedido_service.enums.PaymentMethod;
+import com.example.pedido_service.model.Product;
+import com.example.pedido_service.repository.OrderRepository;
+import com.example.pedido_service.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({OrderService.class, StockLedger.class, ProductCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceStockConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 100;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = new Product();
+        product.setDescription("Hot SKU");
+        product.setPrice(BigDecimal.TEN);
+        product.setCategory("flash-sale");
+        product.setQuantityStock(INITIAL_STOCK);
+        Long productId = productRepository.save(product).getId();
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(new CreateOrderDTO(
+                            List.of(new CreateOrderedItemDTO(productId, 1)),
+                            PaymentMethod.PIX,
+                            0,
+                            BigDecimal.ZERO
+                    ));
+                    accepted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        stockLedger.flush();
+
+        int finalStock = productRepository.findById(productId).orElseThrow().getQuantityStock();
+
+        assertThat(finalStock).isEqualTo(0);
+        assertThat(accepted.get()).isEqualTo(INITIAL_STOCK - finalStock);
+        assertThat(orderRepository.count()).isEqualTo(accepted.get());
+        assertThat(accepted.get() + rejected.get()).isEqualTo(ATTEMPTS);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.pedido_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHasher hasher = new PasswordHasher(meterRegistry, 4, false, Duration.ZERO, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void hashesWithTheConfiguredStrength() {
+        String encoded = hasher.encode("secret");
+
+        assertThat(encoded).startsWith("$2a$04$");
+        assertThat(hasher.matches("secret", encoded)).isTrue();
+        assertThat(hasher.matches("other", encoded)).isFalse();
+    }
+
+    @Test
+    void onlyWeakerHashesNeedRehash() {
+        PasswordHasher stronger = new PasswordHasher(meterRegistry, 5, false, Duration.ZERO, 1, 1);
+        try {
+            assertThat(stronger.needsRehash(hasher.encode("secret"))).isTrue();
+            assertThat(hasher.needsRehash(stronger.encode("secret"))).isFalse();
+            assertThat(hasher.needsRehash(hasher.encode("secret"))).isFalse();
+            assertThat(hasher.needsRehash("plain")).isFalse();
+        } finally {
+            stronger.shutdown();
+        }
+    }
+
+    @Test
+    void aFullQueueIsRejectedInsteadOfWaitedOn() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> hasher.run(() -> release.await(5, TimeUnit.SECONDS)));
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> hasher.run(() -> release.await(5, TimeUnit.SECONDS)));
+        while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> hasher.encode("secret")).isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertThat(hasher.matches("secret", hasher.encode("secret"))).isTrue();
+    }
+
+    @Test
+    void calibrationNeverLowersTheConfiguredStrength() {
+        PasswordHasher calibrated = new PasswordHasher(meterRegistry, 12, true, Duration.ZERO, 1, 1);
+        try {
+            assertThat(calibrated.getStrength()).isEqualTo(12);
+        } finally {
+            calibrated.shutdown();
+        }
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertThat(PasswordHasher.calibrate(Duration.ZERO)).isEqualTo(PasswordHasher.MIN_CALIBRATED_STRENGTH);
+        assertThat(PasswordHasher.calibrate(Duration.ofDays(1))).isEqualTo(PasswordHasher.MAX_CALIBRATED_STRENGTH);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.model.OrderedItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceCalculatorTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private final OrderService orderService = new OrderService(null, null, null, null, null, new SimpleMeterRegistry());
+
+    @Test
+    void matchesDecimalTotalsForRandomOrders() {
+        SplittableRandom random = new SplittableRandom(20240611L);
+
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            List<OrderedItem> items = randomItems(random);
+            int discount = random.nextInt(5) == 0 ? random.nextInt(101, 250) : random.nextInt(0, 101);
+            BigDecimal shippingFee = BigDecimal.valueOf(random.nextLong(0, 1_000_000), 2);
+
+            BigDecimal expected = referenceTotal(items, discount, shippingFee);
+            BigDecimal actual = orderService.calculateTotalPrice(items, discount, shippingFee);
+
+            assertEquals(expected, actual, () -> "items=" + describe(items) + " discount=" + discount + " shippingFee=" + shippingFee);
+        }
+    }
+
+    @Test
+    void roundsHalfAwayFromZero() {
+        // 0.50 * 99% = 0.495 and 0.50 * -1% = -0.005 both sit exactly on a half cent
+        assertEquals(50, PriceCalculator.total(50, 1, 0));
+        assertEquals(-1, PriceCalculator.total(50, 101, 0));
+        assertEquals(49, PriceCalculator.total(49, 1, 0));
+    }
+
+    @Test
+    void rejectsAmountsFinerThanCents() {
+        assertThrows(IllegalArgumentException.class, () -> PriceCalculator.toMinorUnits(new BigDecimal("1.005")));
+        assertEquals(1000, PriceCalculator.toMinorUnits(new BigDecimal("10")));
+    }
+
+    @Test
+    void failsOnOverflowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.lineTotal(Long.MAX_VALUE / 2, 3));
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.total(Long.MAX_VALUE / 10, 0, 0));
+    }
+
+    /**
+     * The previous BigDecimal algorithm, rounded to the two decimals the {@code total_price} column stores.
+     */
+    private static BigDecimal referenceTotal(List<OrderedItem> orderedItems, int discount, BigDecimal shippingFee) {
+        BigDecimal totalPrice = orderedItems.stream()
+                .map(item -> item.getUnitaryPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal discountPercent = BigDecimal.valueOf(discount)
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        BigDecimal discountAmount = totalPrice.multiply(discountPercent);
+        totalPrice = totalPrice.subtract(discountAmount);
+
+        totalPrice = totalPrice.add(shippingFee);
+
+        return totalPrice.setScale(PriceCalculator.MINOR_UNIT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static List<OrderedItem> randomItems(SplittableRandom random) {
+        int count = random.nextInt(0, 30);
+        List<OrderedItem> items = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            OrderedItem item = new OrderedItem();
+            // Mix whole amounts (scale 0) with cents so the decimal scales differ across items
+            item.setUnitaryPrice(random.nextBoolean()
+                    ? BigDecimal.valueOf(random.nextLong(1, 100_000_000), 2)
+                    : BigDecimal.valueOf(random.nextLong(1, 10_000)));
+            item.setQuantity(random.nextInt(1, 1_000));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String describe(List<OrderedItem> items) {
+        StringBuilder description = new StringBuilder("[");
+        for (OrderedItem item : items) {
+            description.append(item.getQuantity()).append('x').append(item.getUnitaryPrice()).append(' ');
+        }
+        return description.append(']').toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductServiceBenchmark {
+
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkFixtures.products(1).get(0);
+        productService = BenchmarkFixtures.productService(BenchmarkFixtures.products(1));
+    }
+
+    @Benchmark
+    public ProductDTO convertToDto() {
+        return productService.convertToDto(product);
+    }
+}
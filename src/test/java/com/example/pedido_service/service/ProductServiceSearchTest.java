@@ -0,0 +1,119 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.dto.ProductDTO;
+import com.example.pedido_service.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductService.class, StockLedger.class, ProductCache.class, ProductSearchIndex.class, CatalogSnapshot.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, TaskExecutionAutoConfiguration.class})
+class ProductServiceSearchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 200; i++) {
+            persistProduct("Product " + i, i % 2 == 0 ? "even" : "odd", i);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findFilteredProductsReadsProjectionsWithoutEntities() {
+        List<ProductDTO> products = productService.findFilteredProducts(null, "even", BigDecimal.valueOf(100), null);
+
+        assertThat(products).hasSize(55);
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getCategory()).isEqualTo("even");
+            assertThat(product.getPrice()).isGreaterThanOrEqualTo(BigDecimal.valueOf(100));
+            assertThat(product.getDescription()).startsWith("Product ");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void narrowDescriptionSearchUsesIndexedIds() {
+        for (int i = 0; i < 20; i++) {
+            persistProduct("Gadget " + i, i % 2 == 0 ? "even" : "odd", i);
+        }
+        entityManager.flush();
+        productSearchIndex.rebuild();
+        // Not indexed: only the LIKE fallback could return it
+        persistProduct("Gadget unindexed", "even", 0);
+        entityManager.flush();
+
+        List<ProductDTO> products = productService.findFilteredProducts("gadget", "even", null, null);
+
+        assertThat(products).hasSize(10);
+        assertThat(products).extracting(ProductDTO::getDescription).doesNotContain("Gadget unindexed");
+    }
+
+    @Test
+    void broadDescriptionSearchFallsBackToLike() {
+        for (int i = 200; i <= ProductService.MAX_INDEXED_CANDIDATES; i++) {
+            persistProduct("Product " + i, i % 2 == 0 ? "even" : "odd", i);
+        }
+        entityManager.flush();
+        productSearchIndex.rebuild();
+        persistProduct("Product unindexed", "even", 0);
+        entityManager.flush();
+        statistics.clear();
+
+        List<ProductDTO> products = productService.findFilteredProducts("product", "even", null, null);
+
+        assertThat(products).hasSize(ProductService.MAX_INDEXED_CANDIDATES / 2 + 2);
+        assertThat(products).extracting(ProductDTO::getDescription).contains("Product unindexed");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void descriptionWithoutIndexHitsReturnsNothing() {
+        productSearchIndex.rebuild();
+        statistics.clear();
+
+        assertThat(productService.findFilteredProducts("missing", null, null, null)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private void persistProduct(String description, String category, int i) {
+        Product product = new Product();
+        product.setDescription(description);
+        product.setPrice(BigDecimal.valueOf(10 + i));
+        product.setCategory(category);
+        product.setQuantityStock(i);
+        entityManager.persist(product);
+    }
+}
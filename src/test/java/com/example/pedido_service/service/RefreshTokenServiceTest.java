@@ -0,0 +1,195 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.enums.UserRole;
+import com.example.pedido_service.model.RefreshToken;
+import com.example.pedido_service.model.User;
+import com.example.pedido_service.repository.RefreshTokenRepository;
+import com.example.pedido_service.repository.UserRepository;
+import com.example.pedido_service.service.UserPrincipalCache.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RefreshTokenService.class, UserPrincipalCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UserPrincipal maria;
+    private UserPrincipal joao;
+
+    @BeforeEach
+    void setUp() {
+        maria = principal(userRepository.save(user("maria", UserRole.ADMIN, UserRole.CLIENTE)));
+        joao = principal(userRepository.save(user("joao", UserRole.CLIENTE)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        userPrincipalCache.evict("maria");
+        userPrincipalCache.evict("joao");
+    }
+
+    @Test
+    void onlyTheHashOfAnIssuedTokenIsStored() {
+        RefreshTokenService.Issued issued = refreshTokenService.issue(joao);
+
+        RefreshToken stored = refreshTokenRepository.findAll().get(0);
+        assertThat(stored.getTokenHash()).isEqualTo(RefreshTokenService.hash(issued.token())).isNotEqualTo(issued.token());
+        assertThat(stored.getUserId()).isEqualTo(joao.id());
+        assertThat(stored.getUsername()).isEqualTo("joao");
+        assertThat(stored.getCredentialsVersion()).isEqualTo(joao.credentialsVersion());
+        assertThat(stored.isRotated()).isFalse();
+        assertThat(issued.scope()).isEqualTo("CLIENTE");
+    }
+
+    @Test
+    void rotationSpendsTheTokenAndIssuesANewOne() {
+        RefreshTokenService.Issued first = refreshTokenService.issue(maria);
+
+        RefreshTokenService.Issued second = refreshTokenService.rotate(first.token());
+
+        assertThat(second.token()).isNotEqualTo(first.token());
+        assertThat(second.userId()).isEqualTo(maria.id());
+        assertThat(second.scope()).isEqualTo("ADMIN CLIENTE");
+        assertThat(refreshTokenRepository.findById(RefreshTokenService.hash(first.token())).orElseThrow().isRotated()).isTrue();
+        assertThat(refreshTokenService.rotate(second.token()).userId()).isEqualTo(maria.id());
+    }
+
+    @Test
+    void rotationNeverOutlivesTheSessionStartedAtLogin() {
+        RefreshTokenService.Issued first = refreshTokenService.issue(maria);
+        RefreshToken stored = refreshTokenRepository.findById(RefreshTokenService.hash(first.token())).orElseThrow();
+        assertThat(Duration.between(Instant.now(), stored.getSessionExpiresAt())).isGreaterThan(Duration.ofDays(29));
+
+        // A session one minute from its end: the next token gets that minute, not another full lifetime
+        stored.setSessionExpiresAt(Instant.now().plusSeconds(60));
+        refreshTokenRepository.save(stored);
+        Instant sessionEnd = refreshTokenRepository.findById(stored.getTokenHash()).orElseThrow().getSessionExpiresAt();
+
+        RefreshTokenService.Issued second = refreshTokenService.rotate(first.token());
+
+        RefreshToken next = refreshTokenRepository.findById(RefreshTokenService.hash(second.token())).orElseThrow();
+        assertThat(next.getSessionExpiresAt()).isEqualTo(sessionEnd);
+        assertThat(next.getExpiresAt()).isEqualTo(sessionEnd);
+        assertThat(second.expiresAt()).isEqualTo(sessionEnd);
+    }
+
+    @Test
+    void aPasswordOrRoleChangeRevokesTheUsersRefreshTokens() {
+        RefreshTokenService.Issued phone = refreshTokenService.issue(maria);
+        RefreshTokenService.Issued laptop = refreshTokenService.issue(maria);
+        RefreshTokenService.Issued other = refreshTokenService.issue(joao);
+
+        User user = userRepository.findByUsername("maria").orElseThrow();
+        user.setRoles(Set.of(UserRole.CLIENTE));
+        userRepository.save(user);
+        userPrincipalCache.evict("maria");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(phone.token())).isInstanceOf(BadCredentialsException.class);
+        assertThat(refreshTokenRepository.findById(RefreshTokenService.hash(laptop.token()))).isEmpty();
+        assertThat(refreshTokenService.rotate(other.token()).userId()).isEqualTo(joao.id());
+
+        UserPrincipal demoted = principal(userRepository.findByUsername("maria").orElseThrow());
+        RefreshTokenService.Issued current = refreshTokenService.rotate(refreshTokenService.issue(demoted).token());
+        assertThat(current.scope()).isEqualTo("CLIENTE");
+
+        user = userRepository.findByUsername("maria").orElseThrow();
+        user.setPassword("new-hash");
+        userRepository.save(user);
+        userPrincipalCache.evict("maria");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(current.token())).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void aLoginRehashDoesNotRevokeTheUsersRefreshTokens() {
+        RefreshTokenService.Issued issued = refreshTokenService.issue(maria);
+
+        userRepository.updatePassword(maria.id(), "stronger-hash");
+        userPrincipalCache.evict("maria");
+
+        assertThat(refreshTokenService.rotate(issued.token()).userId()).isEqualTo(maria.id());
+    }
+
+    @Test
+    void replayingASpentTokenRevokesEveryTokenOfTheUser() {
+        RefreshTokenService.Issued spent = refreshTokenService.issue(maria);
+        RefreshTokenService.Issued current = refreshTokenService.rotate(spent.token());
+        RefreshTokenService.Issued otherDevice = refreshTokenService.issue(maria);
+        RefreshTokenService.Issued otherUser = refreshTokenService.issue(joao);
+        double reusedBefore = meterRegistry.get("auth.refresh.reused").counter().count();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(spent.token()))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(meterRegistry.get("auth.refresh.reused").counter().count()).isEqualTo(reusedBefore + 1);
+        assertThatThrownBy(() -> refreshTokenService.rotate(current.token())).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(otherDevice.token())).isInstanceOf(BadCredentialsException.class);
+        assertThat(refreshTokenService.rotate(otherUser.token()).userId()).isEqualTo(joao.id());
+    }
+
+    @Test
+    void expiredRevokedAndUnknownTokensAreRejected() {
+        RefreshTokenService.Issued expired = refreshTokenService.issue(joao);
+        RefreshToken stored = refreshTokenRepository.findById(RefreshTokenService.hash(expired.token())).orElseThrow();
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.save(stored);
+        RefreshTokenService.Issued revoked = refreshTokenService.issue(joao);
+        refreshTokenService.revoke(revoked.token());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(expired.token())).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(revoked.token())).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate("not-a-token")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(null)).isInstanceOf(BadCredentialsException.class);
+
+        refreshTokenService.purgeExpired();
+        assertThat(refreshTokenRepository.count()).isZero();
+    }
+
+    private User user(String username, UserRole... roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setRoles(Set.of(roles));
+        return user;
+    }
+
+    private UserPrincipal principal(User user) {
+        return userPrincipalCache.get(user.getUsername()).orElseThrow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.pedido_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedStockCounterTest {
+
+    @Test
+    void resetsDownUnderLoadStayInStepWithTheJournal() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(1_000, 8);
+        // What the stock_movements journal would add up to: the initial level, every reservation and release,
+        // and the delta each committed reset journals
+        AtomicLong journal = new AtomicLong(1_000);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    int quantity = random.nextInt(1, 4);
+                    if (counter.tryReserve(quantity)) {
+                        journal.addAndGet(-quantity);
+                        if (random.nextInt(4) == 0) {
+                            counter.release(quantity);
+                            journal.addAndGet(quantity);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        workers.add(executor.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2_000; i++) {
+                long delta = counter.beginReset(random.nextInt(0, 20));
+                boolean committed = random.nextInt(5) != 0;
+                if (committed) {
+                    journal.addAndGet(delta);
+                }
+                counter.endReset(committed);
+            }
+            running.set(false);
+            return null;
+        }));
+
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(counter.available()).isEqualTo(journal.get()).isNotNegative();
+        long reservable = 0;
+        while (counter.tryReserve(1)) {
+            reservable++;
+        }
+        assertThat(reservable).isEqualTo(journal.get());
+    }
+
+    @Test
+    void reservationsWaitForAResetInProgress() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(100, 4);
+
+        assertThat(counter.beginReset(5)).isEqualTo(-95);
+        CompletableFuture<Boolean> reservation = CompletableFuture.supplyAsync(() -> counter.tryReserve(3));
+        Thread.sleep(100);
+        assertThat(reservation).isNotDone();
+
+        counter.endReset(true);
+
+        assertThat(reservation.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(counter.available()).isEqualTo(2);
+    }
+
+    @Test
+    void aRolledBackResetRestoresTheStockItDrained() {
+        StripedStockCounter counter = new StripedStockCounter(100, 4);
+
+        counter.beginReset(5);
+        counter.release(7);
+        counter.endReset(false);
+
+        assertThat(counter.available()).isEqualTo(107);
+        assertThatThrownBy(() -> counter.beginReset(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
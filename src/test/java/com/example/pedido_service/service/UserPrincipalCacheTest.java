@@ -0,0 +1,71 @@
+package com.example.pedido_service.service;
+
+import com.example.pedido_service.enums.UserRole;
+import com.example.pedido_service.model.User;
+import com.example.pedido_service.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserPrincipalCache.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPrincipalCacheTest {
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void principalsAreServedFromTheCacheUntilEvicted() {
+        User user = userRepository.save(new User(null, "maria", "hash-1", Set.of(UserRole.CLIENTE), 0));
+
+        UserPrincipalCache.UserPrincipal principal = userPrincipalCache.get("maria").orElseThrow();
+        assertThat(principal.id()).isEqualTo(user.getId());
+        assertThat(principal.passwordHash()).isEqualTo("hash-1");
+        assertThat(principal.roles()).containsExactly(UserRole.CLIENTE);
+
+        userRepository.updatePassword(user.getId(), "hash-2");
+        assertThat(userPrincipalCache.get("maria").orElseThrow().passwordHash()).isEqualTo("hash-1");
+
+        userPrincipalCache.evict("maria");
+        assertThat(userPrincipalCache.get("maria").orElseThrow().passwordHash()).isEqualTo("hash-2");
+    }
+
+    @Test
+    void unknownUsernamesAreNotCached() {
+        assertThat(userPrincipalCache.get("joao")).isEmpty();
+        assertThat(userPrincipalCache.get(null)).isEmpty();
+
+        userRepository.save(new User(null, "joao", "hash", Set.of(UserRole.OPERADOR), 0));
+
+        assertThat(userPrincipalCache.get("joao")).isPresent();
+    }
+
+    @Test
+    void usernamesAreUnique() {
+        userRepository.saveAndFlush(new User(null, "ana", "hash", Set.of(UserRole.CLIENTE), 0));
+
+        assertThatThrownBy(() -> userRepository.saveAndFlush(new User(null, "ana", "other", Set.of(UserRole.ADMIN), 0)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
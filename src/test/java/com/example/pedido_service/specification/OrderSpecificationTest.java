@@ -0,0 +1,82 @@
+package com.example.pedido_service.specification;
+
+import com.example.pedido_service.model.Order;
+import com.example.pedido_service.pagination.OrderCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.pedido_service.specification.OrderSpecificationTest$CapturingStatementInspector")
+class OrderSpecificationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void seekAfterStartsTheIndexScanAtTheCursor() throws Exception {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.now(), 42L);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(root.get("id"))
+                .where(OrderSpecification.seekAfter(cursor).toPredicate(root, query, cb))
+                .orderBy(cb.desc(root.get("dateCreated")), cb.desc(root.get("id")));
+
+        CapturingStatementInspector.STATEMENTS.clear();
+        entityManager.createQuery(query).getResultList();
+        String sql = CapturingStatementInspector.STATEMENTS.get(0);
+
+        String plan;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+            // Every bound but the last is the cursor date; the id comparison comes last
+            int parameters = explain.getParameterMetaData().getParameterCount();
+            for (int i = 1; i < parameters; i++) {
+                explain.setTimestamp(i, Timestamp.valueOf(cursor.dateCreated()));
+            }
+            explain.setLong(parameters, cursor.id());
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                plan = rs.getString(1).toUpperCase();
+            }
+        }
+
+        assertThat(plan).containsPattern("IDX_ORDERS_DATE_CREATED_ID: [A-Z0-9_.]*DATE_CREATED <= ");
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}